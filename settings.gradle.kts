@@ -9,3 +9,8 @@ pluginManagement {
 rootProject.name = "VeinMiner"
 
 include("veinminer-common", "veinminer-bukkit", "veinminer-fabric")
+
+// Benchmarks need the JMH plugin, which regular (and offline) builds shouldn't have to resolve. Opt in with -PwithBenchmarks
+if (providers.gradleProperty("withBenchmarks").isPresent) {
+    include("veinminer-benchmarks")
+}
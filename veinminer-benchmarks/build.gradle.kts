@@ -0,0 +1,34 @@
+/*
+ * JMH benchmarks for VeinMiner's vein mining patterns, run against an in-memory voxel world so that
+ * no server is required. This module is only part of the build when the withBenchmarks property is
+ * set. Once dependencies have been resolved, these may be run offline with:
+ *
+ *     ./gradlew --offline -PwithBenchmarks :veinminer-benchmarks:jmh
+ *
+ * Results (including allocation rates from the GC profiler) are written to build/results/jmh/
+ */
+plugins {
+    alias(libs.plugins.jmh)
+}
+
+repositories {
+    maven("https://hub.spigotmc.org/nexus/content/repositories/snapshots/") // Spigot
+}
+
+dependencies {
+    jmh(project(":veinminer-bukkit"))
+    jmh(libs.spigot.api)
+}
+
+jmh {
+    jmhVersion = libs.versions.jmh.get()
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+}
+
+tasks {
+    // Benchmarks are not an artifact
+    withType<PublishToMavenRepository> {
+        enabled = false
+    }
+}
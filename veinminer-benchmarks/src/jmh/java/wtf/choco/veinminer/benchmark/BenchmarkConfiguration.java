@@ -0,0 +1,59 @@
+package wtf.choco.veinminer.benchmark;
+
+import java.util.Set;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+
+import wtf.choco.veinminer.config.VeinMiningConfiguration;
+
+/**
+ * A fixed {@link VeinMiningConfiguration} with no allocation limits other than the maximum vein size.
+ *
+ * @param maxVeinSize the maximum vein size
+ */
+record BenchmarkConfiguration(int maxVeinSize) implements VeinMiningConfiguration {
+
+    @Override
+    public boolean isRepairFriendly() {
+        return false;
+    }
+
+    @Override
+    public int getRepairFriendlyDurability() {
+        return 1;
+    }
+
+    @Override
+    public int getMaxVeinSize() {
+        return maxVeinSize;
+    }
+
+    @Override
+    public int getMaxAllocationProbes() {
+        return 0;
+    }
+
+    @Override
+    public long getMaxAllocationTime() {
+        return 0;
+    }
+
+    @Override
+    public double getCost() {
+        return 0.0D;
+    }
+
+    @Override
+    public boolean isDisabledWorld(@NotNull String worldName) {
+        return false;
+    }
+
+    @NotNull
+    @Unmodifiable
+    @Override
+    public Set<String> getDisabledWorlds() {
+        return Set.of();
+    }
+
+}
@@ -0,0 +1,116 @@
+package wtf.choco.veinminer.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Minimal stand-ins for the Bukkit {@link World}, {@link Block} and {@link BlockData} interfaces,
+ * implementing only the methods that vein mining patterns make use of. Stubs are dynamic proxies so
+ * that they don't have to keep up with every method added to the API, though this does mean that
+ * every call made to them costs more than it would on a real server. Benchmark results should only
+ * be compared against one another, not against timings taken on a server.
+ */
+final class BukkitStubs {
+
+    private BukkitStubs() { }
+
+    /**
+     * Create a {@link BlockData} stub of the given type. Stubs of the same type are only equal to one
+     * another if they are the same instance, so only one should be created per type.
+     *
+     * @param type the block type
+     *
+     * @return the block data
+     */
+    @NotNull
+    static BlockData blockData(@NotNull Material type) {
+        return proxy(BlockData.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getMaterial" -> type;
+            case "getAsString" -> type.getKey().toString();
+            case "matches" -> proxy == args[0];
+            case "clone" -> proxy;
+            default -> objectMethod(proxy, method, args, "BlockData{" + type.getKey() + "}");
+        });
+    }
+
+    /**
+     * Create a {@link World} stub backed by the given {@link VoxelWorld}.
+     *
+     * @param voxels the voxel world
+     *
+     * @return the world
+     */
+    @NotNull
+    static World world(@NotNull VoxelWorld voxels) {
+        UUID id = UUID.randomUUID();
+        return proxy(World.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getBlockAt" -> {
+                if (args.length != 3) {
+                    throw new UnsupportedOperationException("getBlockAt(Location) is not stubbed");
+                }
+
+                yield block((World) proxy, voxels, (int) args[0], (int) args[1], (int) args[2]);
+            }
+            case "getBlockData" -> voxels.getBlockData((int) args[0], (int) args[1], (int) args[2]);
+            case "getMinHeight" -> 0;
+            case "getMaxHeight" -> voxels.getHeight();
+            case "getName" -> "voxel_world";
+            case "getUID" -> id;
+            default -> objectMethod(proxy, method, args, "World{voxel_world}");
+        });
+    }
+
+    private static Block block(World world, VoxelWorld voxels, int x, int y, int z) {
+        return proxy(Block.class, new BlockHandler(world, voxels, x, y, z));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(BukkitStubs.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    private static Object objectMethod(Object proxy, Method method, Object[] args, String name) {
+        return switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> name;
+            default -> throw new UnsupportedOperationException(method.getName() + " is not stubbed");
+        };
+    }
+
+    // Blocks are equal if they are at the same position, just as they are on a server
+    private record BlockHandler(World world, VoxelWorld voxels, int x, int y, int z) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            return switch (method.getName()) {
+                case "getX" -> x;
+                case "getY" -> y;
+                case "getZ" -> z;
+                case "getWorld" -> world;
+                case "getBlockData" -> blockData();
+                case "getType" -> blockData().getMaterial();
+                case "isEmpty" -> blockData().getMaterial().isAir();
+                case "equals" -> args[0] != null && Proxy.isProxyClass(args[0].getClass()) && equals(Proxy.getInvocationHandler(args[0]));
+                case "hashCode" -> hashCode();
+                case "toString" -> "Block{x=" + x + ", y=" + y + ", z=" + z + "}";
+                default -> throw new UnsupportedOperationException(method.getName() + " is not stubbed");
+            };
+        }
+
+        private BlockData blockData() {
+            BlockData data = voxels.getBlockData(x, y, z);
+            return data != null ? data : voxels.getAir();
+        }
+
+    }
+
+}
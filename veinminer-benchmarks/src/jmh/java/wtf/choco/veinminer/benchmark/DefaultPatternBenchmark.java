@@ -0,0 +1,29 @@
+package wtf.choco.veinminer.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Param;
+
+import wtf.choco.veinminer.pattern.VeinMiningPattern;
+import wtf.choco.veinminer.pattern.VeinMiningPatternDefault;
+import wtf.choco.veinminer.pattern.VeinMiningPatternDefault.FrontierStrategy;
+
+/**
+ * Benchmarks {@link VeinMiningPatternDefault} with each of its {@link FrontierStrategy FrontierStrategies}.
+ */
+public class DefaultPatternBenchmark extends PatternBenchmark {
+
+    /**
+     * The frontier strategy with which to grow veins.
+     */
+    @Param
+    public FrontierStrategy frontierStrategy;
+
+    @NotNull
+    @Override
+    protected VeinMiningPattern createPattern() {
+        VeinMiningPatternDefault pattern = (VeinMiningPatternDefault) VeinMiningPatternDefault.getInstance();
+        pattern.setFrontierStrategy(frontierStrategy);
+        return pattern;
+    }
+
+}
@@ -0,0 +1,81 @@
+package wtf.choco.veinminer.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wtf.choco.veinminer.block.VeinMinerBlock;
+import wtf.choco.veinminer.config.VeinMiningConfiguration;
+import wtf.choco.veinminer.pattern.VeinMiningPattern;
+
+/**
+ * The base of all pattern benchmarks. Measures the throughput of allocating a full vein in each
+ * {@link VoxelScenario}, the vein being mined as though the player had broken the north face of the
+ * origin block.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class PatternBenchmark {
+
+    /**
+     * The scenario to benchmark.
+     */
+    @Param
+    public VoxelScenario scenario;
+
+    private VeinMiningPattern pattern;
+    private VoxelWorld world;
+    private Block origin;
+    private VeinMinerBlock block;
+    private VeinMiningConfiguration config;
+
+    /**
+     * Build the scenario's world and create the pattern.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        this.pattern = createPattern();
+        this.world = scenario.createWorld();
+        this.origin = scenario.getOrigin(world);
+        this.block = VeinMinerBlock.type(scenario.getType());
+        this.config = new BenchmarkConfiguration(scenario.getMaxVeinSize());
+    }
+
+    /**
+     * Allocate the scenario's vein.
+     *
+     * @return the allocated blocks
+     */
+    @Benchmark
+    public List<Block> allocate() {
+        return pattern.allocateBlocks(world, origin, BlockFace.NORTH, block, config, null);
+    }
+
+    /**
+     * Create the pattern to benchmark. Called once all parameters have been set.
+     *
+     * @return the pattern
+     */
+    @NotNull
+    protected abstract VeinMiningPattern createPattern();
+
+}
@@ -0,0 +1,27 @@
+package wtf.choco.veinminer.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Param;
+
+import wtf.choco.veinminer.pattern.VeinMiningPattern;
+import wtf.choco.veinminer.pattern.VeinMiningPatternStaircase;
+import wtf.choco.veinminer.pattern.VeinMiningPatternStaircase.Direction;
+
+/**
+ * Benchmarks {@link VeinMiningPatternStaircase} in each {@link Direction}.
+ */
+public class StaircasePatternBenchmark extends PatternBenchmark {
+
+    /**
+     * The direction of the staircase.
+     */
+    @Param
+    public Direction direction;
+
+    @NotNull
+    @Override
+    protected VeinMiningPattern createPattern() {
+        return new VeinMiningPatternStaircase(direction);
+    }
+
+}
@@ -0,0 +1,19 @@
+package wtf.choco.veinminer.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+
+import wtf.choco.veinminer.pattern.VeinMiningPattern;
+import wtf.choco.veinminer.pattern.VeinMiningPatternTunnel;
+
+/**
+ * Benchmarks {@link VeinMiningPatternTunnel} with its default radius.
+ */
+public class TunnelPatternBenchmark extends PatternBenchmark {
+
+    @NotNull
+    @Override
+    protected VeinMiningPattern createPattern() {
+        return new VeinMiningPatternTunnel();
+    }
+
+}
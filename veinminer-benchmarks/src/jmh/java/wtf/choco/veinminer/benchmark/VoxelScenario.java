@@ -0,0 +1,175 @@
+package wtf.choco.veinminer.benchmark;
+
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A world layout against which patterns are benchmarked. Every scenario is built in a cube of
+ * {@value #SIZE} blocks along each axis and vein mined from a fixed origin.
+ * <p>
+ * Public only so that JMH may set it as a benchmark parameter.
+ */
+public enum VoxelScenario {
+
+    /**
+     * A solid sphere of iron ore embedded in stone, small enough to be allocated in full. Most probes
+     * match, so this mostly measures the cost of bookkeeping for every allocated block.
+     */
+    DENSE_ORE_BLOB(Material.IRON_ORE, 4096, 64, 64, 64) {
+
+        @Override
+        void build(@NotNull VoxelWorld world) {
+            world.fill(0, 0, 0, SIZE - 1, SIZE - 1, SIZE - 1, Material.STONE);
+
+            int radius = 8, radiusSquared = radius * radius;
+            for (int x = -radius; x <= radius; x++) {
+                for (int y = -radius; y <= radius; y++) {
+                    for (int z = -radius; z <= radius; z++) {
+                        if ((x * x) + (y * y) + (z * z) <= radiusSquared) {
+                            world.set(64 + x, 64 + y, 64 + z, Material.IRON_ORE);
+                        }
+                    }
+                }
+            }
+        }
+
+    },
+
+    /**
+     * A long chain of coal ore in which each block only touches the next at a corner, winding its way up
+     * through stone. Almost every probe misses, so this mostly measures the cost of probing.
+     */
+    SPARSE_DIAGONAL_CHAIN(Material.COAL_ORE, 4096, 8, 4, 8) {
+
+        @Override
+        void build(@NotNull VoxelWorld world) {
+            world.fill(0, 0, 0, SIZE - 1, SIZE - 1, SIZE - 1, Material.STONE);
+
+            // Zigzags diagonally back and forth along x and z while always climbing up
+            int x = 8, z = 8, stepX = 1, stepZ = 1;
+            for (int y = 4; y < SIZE - 4; y++) {
+                world.set(x, y, z, Material.COAL_ORE);
+
+                if (x + stepX < 8 || x + stepX > 40) {
+                    stepX = -stepX;
+                }
+
+                if (z + stepZ < 8 || z + stepZ > 24) {
+                    stepZ = -stepZ;
+                }
+
+                x += stepX;
+                z += stepZ;
+            }
+        }
+
+    },
+
+    /**
+     * A forest of tall oak trees whose trunks are joined by branches into a single vein of tens of
+     * thousands of logs, surrounded by leaves. Measures allocation of very large veins.
+     */
+    HUGE_LOG_FOREST(Material.OAK_LOG, 65536, 4, 4, 4) {
+
+        @Override
+        void build(@NotNull VoxelWorld world) {
+            world.fill(0, 0, 0, SIZE - 1, 3, SIZE - 1, Material.DIRT);
+
+            int trunkTop = 20;
+            for (int x = 4; x < SIZE - 4; x += 3) {
+                for (int z = 4; z < SIZE - 4; z += 3) {
+                    world.fill(x - 1, trunkTop - 3, z - 1, x + 1, trunkTop + 2, z + 1, Material.OAK_LEAVES);
+                    world.fill(x, 4, z, x, trunkTop, z, Material.OAK_LOG);
+                }
+
+                // A branch joining every trunk in this row, and a spine joining every row
+                world.fill(x, trunkTop - 4, 4, x, trunkTop - 4, SIZE - 5, Material.OAK_LOG);
+            }
+
+            world.fill(4, trunkTop - 4, 4, SIZE - 5, trunkTop - 4, 4, Material.OAK_LOG);
+        }
+
+    },
+
+    /**
+     * A world made entirely of copper ore, vein mined with the default maximum vein size. The vein is
+     * always cut short, so this measures how quickly a pattern stops once it has allocated enough.
+     */
+    SIZE_CAPPED(Material.COPPER_ORE, 64, 64, 64, 64) {
+
+        @Override
+        void build(@NotNull VoxelWorld world) {
+            world.fill(0, 0, 0, SIZE - 1, SIZE - 1, SIZE - 1, Material.COPPER_ORE);
+        }
+
+    };
+
+    /**
+     * The size of every scenario's world along each axis.
+     */
+    static final int SIZE = 128;
+
+    private final Material type;
+    private final int maxVeinSize;
+    private final int originX, originY, originZ;
+
+    private VoxelScenario(@NotNull Material type, int maxVeinSize, int originX, int originY, int originZ) {
+        this.type = type;
+        this.maxVeinSize = maxVeinSize;
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+    }
+
+    /**
+     * Place this scenario's blocks in the given world.
+     *
+     * @param world the world to build in
+     */
+    abstract void build(@NotNull VoxelWorld world);
+
+    /**
+     * Create a new {@link VoxelWorld} containing this scenario.
+     *
+     * @return the world
+     */
+    @NotNull
+    VoxelWorld createWorld() {
+        VoxelWorld world = new VoxelWorld(SIZE, SIZE, SIZE);
+        this.build(world);
+        return world;
+    }
+
+    /**
+     * Get the type of block being vein mined.
+     *
+     * @return the vein type
+     */
+    @NotNull
+    Material getType() {
+        return type;
+    }
+
+    /**
+     * Get the maximum vein size with which this scenario is vein mined.
+     *
+     * @return the maximum vein size
+     */
+    int getMaxVeinSize() {
+        return maxVeinSize;
+    }
+
+    /**
+     * Get the block in the given world from which this scenario is vein mined.
+     *
+     * @param world the world created by {@link #createWorld()}
+     *
+     * @return the origin block
+     */
+    @NotNull
+    Block getOrigin(@NotNull VoxelWorld world) {
+        return world.getBlockAt(originX, originY, originZ);
+    }
+
+}
@@ -0,0 +1,179 @@
+package wtf.choco.veinminer.benchmark;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import wtf.choco.veinminer.pattern.BlockAccessor;
+
+/**
+ * An in-memory cube of blocks from which patterns may read block states. Blocks are stored as one
+ * byte per position indexing into a palette of {@link BlockData}, so reads cost about as much as
+ * they would reading from a loaded chunk. Positions outside of the cube are unreadable.
+ */
+final class VoxelWorld implements BlockAccessor {
+
+    private final int width, height, depth;
+    private final byte[] voxels;
+
+    private final BlockData[] palette = new BlockData[256];
+    private final Material[] paletteTypes = new Material[256];
+    private final Map<Material, Byte> paletteIndices = new EnumMap<>(Material.class);
+
+    private final World world;
+
+    /**
+     * Construct a new {@link VoxelWorld} filled with air.
+     *
+     * @param width the size of the world along the x axis
+     * @param height the size of the world along the y axis
+     * @param depth the size of the world along the z axis
+     */
+    VoxelWorld(int width, int height, int depth) {
+        this.width = width;
+        this.height = height;
+        this.depth = depth;
+        this.voxels = new byte[width * height * depth];
+        this.world = BukkitStubs.world(this);
+
+        this.paletteIndex(Material.AIR); // Index 0, same as the default value of every voxel
+    }
+
+    @NotNull
+    @Override
+    public World getWorld() {
+        return world;
+    }
+
+    @Nullable
+    @Override
+    public BlockData getBlockData(int x, int y, int z) {
+        if (x < 0 || y < 0 || z < 0 || x >= width || y >= height || z >= depth) {
+            return null;
+        }
+
+        return palette[voxels[index(x, y, z)] & 0xFF];
+    }
+
+    @Nullable
+    @Override
+    public Material getType(int x, int y, int z) {
+        if (x < 0 || y < 0 || z < 0 || x >= width || y >= height || z >= depth) {
+            return null;
+        }
+
+        return paletteTypes[voxels[index(x, y, z)] & 0xFF];
+    }
+
+    /**
+     * Get the {@link Block} at the given position.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     *
+     * @return the block
+     */
+    @NotNull
+    Block getBlockAt(int x, int y, int z) {
+        return world.getBlockAt(x, y, z);
+    }
+
+    /**
+     * Set the type of block at the given position. Positions outside of the world are ignored.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @param type the type of block to set
+     */
+    void set(int x, int y, int z, @NotNull Material type) {
+        if (x < 0 || y < 0 || z < 0 || x >= width || y >= height || z >= depth) {
+            return;
+        }
+
+        this.voxels[index(x, y, z)] = paletteIndex(type);
+    }
+
+    /**
+     * Set the type of every block in the given (inclusive) box.
+     *
+     * @param minX the minimum x coordinate
+     * @param minY the minimum y coordinate
+     * @param minZ the minimum z coordinate
+     * @param maxX the maximum x coordinate
+     * @param maxY the maximum y coordinate
+     * @param maxZ the maximum z coordinate
+     * @param type the type of block to set
+     */
+    void fill(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, @NotNull Material type) {
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    this.set(x, y, z, type);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the {@link BlockData} of air in this world.
+     *
+     * @return air
+     */
+    @NotNull
+    BlockData getAir() {
+        return palette[0];
+    }
+
+    /**
+     * Get the size of this world along the x axis.
+     *
+     * @return the width
+     */
+    int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the size of this world along the y axis.
+     *
+     * @return the height
+     */
+    int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the size of this world along the z axis.
+     *
+     * @return the depth
+     */
+    int getDepth() {
+        return depth;
+    }
+
+    private int index(int x, int y, int z) {
+        return (((y * depth) + z) * width) + x;
+    }
+
+    private byte paletteIndex(Material type) {
+        return paletteIndices.computeIfAbsent(type, ignore -> {
+            int index = paletteIndices.size();
+            if (index >= palette.length) {
+                throw new IllegalStateException("Palette is full");
+            }
+
+            this.palette[index] = BukkitStubs.blockData(type);
+            this.paletteTypes[index] = type;
+            return (byte) index;
+        });
+    }
+
+}
@@ -52,6 +52,7 @@ dependencies {
     compileOnly(libs.anticheat.themis)
     compileOnly(libs.anticheat.vulcan)
 
+    testImplementation(libs.spigot.api) // Bukkit types are only compileOnly, but tests can't run without them
     testImplementation(libs.junit.jupiter.api)
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
@@ -20,6 +20,7 @@ import org.bukkit.event.Listener;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.PluginManager;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.ApiStatus.Internal;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.UnmodifiableView;
 
@@ -57,19 +58,27 @@ import wtf.choco.veinminer.language.JsonLanguageFile;
 import wtf.choco.veinminer.language.LanguageFile;
 import wtf.choco.veinminer.listener.BlockDropCollectionListener;
 import wtf.choco.veinminer.listener.BreakBlockListener;
+import wtf.choco.veinminer.listener.HeldToolCategoryListener;
 import wtf.choco.veinminer.listener.ItemDamageListener;
 import wtf.choco.veinminer.listener.JobsIntegrationListener;
 import wtf.choco.veinminer.listener.McMMOIntegrationListener;
 import wtf.choco.veinminer.listener.PlayerDataListener;
+import wtf.choco.veinminer.listener.TagRefreshListener;
+import wtf.choco.veinminer.listener.VeinAllocationCacheListener;
+import wtf.choco.veinminer.listener.VeinMineScheduler;
+import wtf.choco.veinminer.manager.ActiveVeinRegistry;
 import wtf.choco.veinminer.manager.VeinMinerManager;
 import wtf.choco.veinminer.metrics.AntiCheat;
 import wtf.choco.veinminer.metrics.StatTracker;
 import wtf.choco.veinminer.network.VeinMinerBukkitChannelRegistrar;
 import wtf.choco.veinminer.pattern.PatternRegistry;
+import wtf.choco.veinminer.pattern.VeinAllocationCache;
 import wtf.choco.veinminer.pattern.VeinMiningPatternDefault;
 import wtf.choco.veinminer.pattern.VeinMiningPatternStaircase;
 import wtf.choco.veinminer.pattern.VeinMiningPatternStaircase.Direction;
 import wtf.choco.veinminer.pattern.VeinMiningPatternTunnel;
+import wtf.choco.veinminer.player.VeinMinePreviewExecutor;
+import wtf.choco.veinminer.player.VeinMinerPlayer;
 import wtf.choco.veinminer.player.VeinMinerPlayerManager;
 import wtf.choco.veinminer.tool.ToolCategoryRegistry;
 import wtf.choco.veinminer.update.SpigotMCUpdateChecker;
@@ -81,6 +90,9 @@ import wtf.choco.veinminer.update.UpdateChecker;
  */
 public final class VeinMinerPlugin extends JavaPlugin {
 
+    private static final String NAMESPACE = "veinminer"; // Same as the lowercase plugin name, but available before the plugin is constructed
+    private static final long PERMISSION_REFRESH_INTERVAL_TICKS = 100L;
+
     private static VeinMinerPlugin instance;
 
     private VeinMinerManager veinMinerManager = new VeinMinerManager(this);
@@ -94,6 +106,10 @@ public final class VeinMinerPlugin extends JavaPlugin {
     private final UpdateChecker updateChecker = new SpigotMCUpdateChecker(this, 12038);
     private final List<AntiCheatHook> anticheatHooks = new ArrayList<>();
     private final FoliaLib foliaLib = new FoliaLib(this);
+    private final VeinMinePreviewExecutor veinMinePreviewExecutor = new VeinMinePreviewExecutor();
+    private final VeinAllocationCache veinAllocationCache = new VeinAllocationCache();
+    private final ActiveVeinRegistry activeVeinRegistry = new ActiveVeinRegistry();
+    private final VeinMineScheduler veinMineScheduler = new VeinMineScheduler(this);
 
     private LanguageFile language;
     private ConfigWrapper categoriesConfig;
@@ -146,6 +162,7 @@ public final class VeinMinerPlugin extends JavaPlugin {
         this.getLogger().info("Loading configuration options to local memory");
         this.veinMinerManager.reloadFromConfig();
         this.toolCategoryRegistry.reloadFromConfig();
+        ((VeinMiningPatternDefault) VeinMiningPatternDefault.getInstance()).setFrontierStrategy(getConfiguration().getDefaultPatternFrontierStrategy());
 
         // Special case for server reloads
         this.storage.load(Bukkit.getOnlinePlayers().stream().map(playerManager::get).toList());
@@ -197,8 +214,14 @@ public final class VeinMinerPlugin extends JavaPlugin {
         this.getLogger().info("Registering events");
         manager.registerEvents(new BlockDropCollectionListener(this), this);
         manager.registerEvents(new BreakBlockListener(this), this);
+        manager.registerEvents(new VeinAllocationCacheListener(veinAllocationCache), this);
         manager.registerEvents(new ItemDamageListener(this), this);
         manager.registerEvents(new PlayerDataListener(this), this);
+        manager.registerEvents(new HeldToolCategoryListener(this), this);
+        manager.registerEvents(new TagRefreshListener(this), this);
+
+        // Permissions may change at any time without an event being called, so cached permission checks are discarded periodically
+        this.foliaLib.getScheduler().runTimer(() -> playerManager.getAll().forEach(VeinMinerPlayer::refreshPermissions), PERMISSION_REFRESH_INTERVAL_TICKS, PERMISSION_REFRESH_INTERVAL_TICKS);
 
         Plugin mcMMOPlugin = manager.getPlugin("mcMMO");
         if (mcMMOPlugin != null && manager.isPluginEnabled("mcMMO")) {
@@ -252,7 +275,11 @@ public final class VeinMinerPlugin extends JavaPlugin {
 
         this.storage.save(playerManager.getAll());
 
+        this.veinMineScheduler.cancelAll();
         this.anticheatHooks.clear();
+        this.veinMinePreviewExecutor.shutdown();
+        this.veinAllocationCache.clear();
+        this.activeVeinRegistry.clear();
     }
 
     /**
@@ -416,6 +443,58 @@ public final class VeinMinerPlugin extends JavaPlugin {
         return foliaLib;
     }
 
+    /**
+     * Get the executor on which vein mine previews for client mod users are allocated.
+     * <p>
+     * <strong>NOTE:</strong> Not part of the public API. This method is intended for internal use only.
+     *
+     * @return the preview executor
+     */
+    @Internal
+    @NotNull
+    public VeinMinePreviewExecutor getVeinMinePreviewExecutor() {
+        return veinMinePreviewExecutor;
+    }
+
+    /**
+     * Get the cache of recently allocated veins.
+     * <p>
+     * <strong>NOTE:</strong> Not part of the public API. This method is intended for internal use only.
+     *
+     * @return the vein allocation cache
+     */
+    @Internal
+    @NotNull
+    public VeinAllocationCache getVeinAllocationCache() {
+        return veinAllocationCache;
+    }
+
+    /**
+     * Get the registry of veins that are currently being mined.
+     * <p>
+     * <strong>NOTE:</strong> Not part of the public API. This method is intended for internal use only.
+     *
+     * @return the active vein registry
+     */
+    @Internal
+    @NotNull
+    public ActiveVeinRegistry getActiveVeinRegistry() {
+        return activeVeinRegistry;
+    }
+
+    /**
+     * Get the scheduler breaking veins within the per tick budget.
+     * <p>
+     * <strong>NOTE:</strong> Not part of the public API. This method is intended for internal use only.
+     *
+     * @return the vein mine scheduler
+     */
+    @Internal
+    @NotNull
+    public VeinMineScheduler getVeinMineScheduler() {
+        return veinMineScheduler;
+    }
+
     /**
      * Create a new {@link NamespacedKey} with VeinMiner's namespace.
      *
@@ -425,7 +504,7 @@ public final class VeinMinerPlugin extends JavaPlugin {
      */
     @NotNull
     public static NamespacedKey key(@NotNull String key) {
-        return new NamespacedKey(instance, key);
+        return new NamespacedKey(NAMESPACE, key);
     }
 
     private void registerCommand(@NotNull String commandName, @NotNull CommandExecutor executor) {
@@ -0,0 +1,132 @@
+package wtf.choco.veinminer.api.event.player;
+
+import com.google.common.base.Preconditions;
+
+import java.util.List;
+
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.player.PlayerEvent;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+
+import wtf.choco.veinminer.tool.VeinMinerToolCategory;
+
+/**
+ * Called after a player has vein mined while fast break mode is enabled, once every block in
+ * the vein has been removed but before any of their drops or experience have been spawned.
+ * <p>
+ * In fast break mode, no {@link org.bukkit.event.block.BlockBreakEvent BlockBreakEvent},
+ * {@link org.bukkit.event.block.BlockDropItemEvent BlockDropItemEvent} or
+ * {@link org.bukkit.event.block.BlockExpEvent BlockExpEvent} is called for the blocks that were
+ * vein mined (other than the origin block, which is broken by the player as normal). This event
+ * is called once in their place.
+ */
+public class PlayerVeinMineCompleteEvent extends PlayerEvent {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final Block block;
+    private final VeinMinerToolCategory category;
+    private final List<BlockState> brokenBlocks;
+    private final List<ItemStack> drops;
+    private int experience;
+
+    /**
+     * Construct a new {@link PlayerVeinMineCompleteEvent}.
+     *
+     * @param player the player that vein mined
+     * @param block the origin {@link Block} that was broken by the player
+     * @param category the {@link VeinMinerToolCategory} used to vein mine
+     * @param brokenBlocks the states of all blocks that were removed, as they were before removal
+     * @param drops the items dropped by all removed blocks
+     * @param experience the experience dropped by all removed blocks
+     */
+    public PlayerVeinMineCompleteEvent(@NotNull Player player, @NotNull Block block, @NotNull VeinMinerToolCategory category, @NotNull List<BlockState> brokenBlocks, @NotNull List<ItemStack> drops, int experience) {
+        super(player);
+
+        this.block = block;
+        this.category = category;
+        this.brokenBlocks = brokenBlocks;
+        this.drops = drops;
+        this.experience = experience;
+    }
+
+    /**
+     * Get the origin {@link Block} that was destroyed to trigger this vein mine.
+     *
+     * @return the origin block
+     */
+    @NotNull
+    public Block getBlock() {
+        return block;
+    }
+
+    /**
+     * Get the category used for this vein mine.
+     *
+     * @return the category
+     */
+    @NotNull
+    public VeinMinerToolCategory getCategory() {
+        return category;
+    }
+
+    /**
+     * Get an unmodifiable {@link List} of the states of every block that was removed by this vein
+     * mine, as they were before they were removed. The origin block is not included.
+     *
+     * @return the states of the removed blocks
+     */
+    @NotNull
+    @Unmodifiable
+    public List<BlockState> getBrokenBlocks() {
+        return brokenBlocks;
+    }
+
+    /**
+     * Get a {@link List} of the items dropped by all blocks removed by this vein mine. This list is
+     * mutable. Changes made to the returned collection will directly affect which items are dropped
+     * at the origin block.
+     *
+     * @return the items to drop
+     */
+    @NotNull
+    public List<ItemStack> getDrops() {
+        return drops;
+    }
+
+    /**
+     * Set the amount of experience to drop at the origin block.
+     *
+     * @param experience the experience to drop. Must be at least 0
+     */
+    public void setExperience(int experience) {
+        Preconditions.checkArgument(experience >= 0, "experience must be >= 0, was %s", experience);
+        this.experience = experience;
+    }
+
+    /**
+     * Get the amount of experience dropped by all blocks removed by this vein mine.
+     *
+     * @return the experience to drop
+     */
+    public int getExperience() {
+        return experience;
+    }
+
+    @NotNull
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    @NotNull
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+
+}
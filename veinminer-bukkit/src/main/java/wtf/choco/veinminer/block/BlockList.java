@@ -9,21 +9,33 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.StringJoiner;
-import java.util.function.Predicate;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 import org.bukkit.Material;
 import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.ApiStatus.Internal;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import wtf.choco.veinminer.util.MaterialBitSet;
+
 /**
  * A list of {@link VeinMinerBlock VeinMinerBlocks}.
+ * <p>
+ * Lookups by type or state (such as {@link #containsState(BlockData)} or
+ * {@link #getVeinMinerBlock(BlockData)}) are answered by an index of this list's entries grouped by
+ * {@link Material}, so their cost does not grow with the size of the list. The index is built on the
+ * first lookup after the list is changed.
  */
 public class BlockList implements Iterable<VeinMinerBlock>, Cloneable {
 
+    private static final AtomicLong MODIFICATIONS = new AtomicLong();
+
     private final Set<VeinMinerBlock> blocks;
 
+    private volatile BlockListIndex index;
+
     /**
      * Construct a new {@link BlockList} containing the values of the given lists.
      * Duplicate entries will be ignored.
@@ -45,6 +57,7 @@ public class BlockList implements Iterable<VeinMinerBlock>, Cloneable {
      */
     public BlockList(@NotNull BlockList list) {
         this.blocks = new HashSet<>(list.blocks);
+        this.index = list.index;
     }
 
     /**
@@ -72,7 +85,7 @@ public class BlockList implements Iterable<VeinMinerBlock>, Cloneable {
      * remained unchanged
      */
     public boolean add(@NotNull VeinMinerBlock block) {
-        return blocks.add(block);
+        return invalidateIf(blocks.add(block));
     }
 
     /**
@@ -90,7 +103,7 @@ public class BlockList implements Iterable<VeinMinerBlock>, Cloneable {
             changed |= this.blocks.add(block);
         }
 
-        return changed;
+        return invalidateIf(changed);
     }
 
     /**
@@ -101,7 +114,7 @@ public class BlockList implements Iterable<VeinMinerBlock>, Cloneable {
      * @return true if this list contained the given block
      */
     public boolean remove(@NotNull VeinMinerBlock block) {
-        return blocks.remove(block);
+        return invalidateIf(blocks.remove(block));
     }
 
     /**
@@ -112,7 +125,7 @@ public class BlockList implements Iterable<VeinMinerBlock>, Cloneable {
      * @return true if this list contained a block with the given state
      */
     public boolean remove(@NotNull BlockData state) {
-        return blocks.removeIf(block -> block.matchesState(state, true));
+        return invalidateIf(blocks.removeIf(block -> block.matchesState(state, true)));
     }
 
     /**
@@ -124,7 +137,7 @@ public class BlockList implements Iterable<VeinMinerBlock>, Cloneable {
      * @return true if this list contained at least one block with the given type
      */
     public boolean removeAll(@NotNull Material type) {
-        return blocks.removeIf(block -> block.matchesType(type));
+        return invalidateIf(blocks.removeIf(block -> block.matchesType(type)));
     }
 
     /**
@@ -147,7 +160,7 @@ public class BlockList implements Iterable<VeinMinerBlock>, Cloneable {
      * @return true if this list contains the state, false otherwise
      */
     public boolean containsState(@NotNull BlockData state, boolean exact) {
-        return containsOnPredicate(block -> block.matchesState(state, exact));
+        return index().containsState(state, exact);
     }
 
     /**
@@ -158,7 +171,7 @@ public class BlockList implements Iterable<VeinMinerBlock>, Cloneable {
      * @return true if this list contains the state, false otherwise
      */
     public boolean containsState(@NotNull BlockData state) {
-        return containsOnPredicate(block -> block.matchesState(state, false));
+        return index().containsState(state, false);
     }
 
     /**
@@ -169,7 +182,7 @@ public class BlockList implements Iterable<VeinMinerBlock>, Cloneable {
      * @return true if this list contains the type, false otherwise
      */
     public boolean containsType(@NotNull Material type) {
-        return containsOnPredicate(block -> block.matchesType(type));
+        return index().containsType(type);
     }
 
     /**
@@ -178,23 +191,16 @@ public class BlockList implements Iterable<VeinMinerBlock>, Cloneable {
      * @return true if contains wildcard, false otherwise
      */
     public boolean containsWildcard() {
-        return containsOnPredicate(block -> block == VeinMinerBlock.wildcard());
-    }
-
-    private boolean containsOnPredicate(@NotNull Predicate<VeinMinerBlock> predicate) {
-        for (VeinMinerBlock block : blocks) {
-            if (predicate.test(block)) {
-                return true;
-            }
-        }
-
-        return false;
+        return index().containsWildcard();
     }
 
     /**
      * Get the {@link VeinMinerBlock} from this {@link BlockList} that matches the given
      * {@link BlockData}. If no VeinMinerBlock in this list matches the BlockState (i.e.
      * {@link VeinMinerBlock#matchesState(BlockData)} is {@code false}), null is returned.
+     * <p>
+     * If more than one VeinMinerBlock matches, the most specific is returned. States take
+     * precedence over types, types over tags, and tags over the wildcard.
      *
      * @param state the state for which to get a VeinMinerBlock
      *
@@ -202,13 +208,18 @@ public class BlockList implements Iterable<VeinMinerBlock>, Cloneable {
      */
     @Nullable
     public VeinMinerBlock getVeinMinerBlock(@NotNull BlockData state) {
-        for (VeinMinerBlock block : blocks) {
-            if (block.matchesState(state)) {
-                return block;
-            }
-        }
+        return index().getVeinMinerBlock(state, false);
+    }
 
-        return null;
+    /**
+     * Add to the given {@link MaterialBitSet} every {@link Material} with at least one state
+     * matched by a block in this list. A Material that is not added to the set is guaranteed
+     * to never be matched by {@link #containsState(BlockData)} or {@link #containsType(Material)}.
+     *
+     * @param types the set to which types should be added
+     */
+    public void collectTypes(@NotNull MaterialBitSet types) {
+        types.addAll(index().getTypes());
     }
 
     /**
@@ -234,6 +245,8 @@ public class BlockList implements Iterable<VeinMinerBlock>, Cloneable {
      */
     public void clear() {
         this.blocks.clear();
+        this.index = BlockListIndex.EMPTY;
+        MODIFICATIONS.incrementAndGet();
     }
 
     /**
@@ -303,10 +316,87 @@ public class BlockList implements Iterable<VeinMinerBlock>, Cloneable {
         return blocklist;
     }
 
+    /**
+     * Get an unmodifiable copy of the given {@link BlockList}. Any attempt to modify the returned list
+     * will throw an {@link UnsupportedOperationException}, so it may be safely shared, though a
+     * modifiable copy may still be created with {@link #clone()}.
+     *
+     * @param list the list to copy
+     *
+     * @return the unmodifiable list. If the given list is already unmodifiable, it is returned as is
+     */
+    @NotNull
+    public static BlockList unmodifiable(@NotNull BlockList list) {
+        return (list instanceof UnmodifiableBlockList) ? list : new UnmodifiableBlockList(list);
+    }
+
+    /*
+     * Tags are expanded in every list's index, so every list has effectively been modified.
+     */
+    static void onTagsRefreshed() {
+        MODIFICATIONS.incrementAndGet();
+    }
+
+    /**
+     * Get the number of times any {@link BlockList} has been modified. This count is increased
+     * every time a change is made to the contents of any list, so values computed from the
+     * contents of one or more lists may be cached until this count changes.
+     * <p>
+     * <strong>NOTE:</strong> Not part of the public API. This method is intended for internal use only.
+     *
+     * @return the modification count
+     */
+    @Internal
+    public static long getModificationCount() {
+        return MODIFICATIONS.get();
+    }
+
     @NotNull
     @Override
     public Iterator<VeinMinerBlock> iterator() {
-        return blocks.iterator();
+        Iterator<VeinMinerBlock> iterator = blocks.iterator();
+
+        // Entries removed through the iterator have to invalidate the index too
+        return new Iterator<>() {
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public VeinMinerBlock next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                BlockList.this.index = null;
+                MODIFICATIONS.incrementAndGet();
+            }
+
+        };
+    }
+
+    @NotNull
+    private BlockListIndex index() {
+        BlockListIndex index = this.index;
+        if (index == null || !index.isUpToDate()) {
+            index = BlockListIndex.build(blocks);
+            this.index = index;
+        }
+
+        return index;
+    }
+
+    private boolean invalidateIf(boolean changed) {
+        if (changed) {
+            this.index = null;
+            MODIFICATIONS.incrementAndGet();
+        }
+
+        return changed;
     }
 
     @NotNull
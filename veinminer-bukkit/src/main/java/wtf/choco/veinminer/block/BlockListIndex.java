@@ -0,0 +1,165 @@
+package wtf.choco.veinminer.block;
+
+import java.util.Arrays;
+
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import wtf.choco.veinminer.util.MaterialBitSet;
+
+/*
+ * An immutable lookup index over the contents of a BlockList, bucketing its entries by Material
+ * ordinal so that queries need not test every entry. Type entries and every Material in each tag
+ * entry are flattened into a single array, and state entries are kept in per-Material buckets
+ * (there are rarely more than one or two per Material). Tags are expanded when the index is built,
+ * so an index must be rebuilt if tag contents change.
+ */
+final class BlockListIndex {
+
+    private static final int NO_TAGS = -1;
+
+    static final BlockListIndex EMPTY = new BlockListIndex(null, new VeinMinerBlock[0], null, new MaterialBitSet(), NO_TAGS);
+
+    private static final Material[] MATERIALS = Material.values();
+
+    @Nullable
+    private final VeinMinerBlock wildcard;
+    private final VeinMinerBlock @NotNull [] byType;
+    private final VeinMinerBlock @Nullable [][] byState;
+    private final MaterialBitSet types;
+    private final int tagEpoch;
+
+    private BlockListIndex(@Nullable VeinMinerBlock wildcard, VeinMinerBlock @NotNull [] byType, VeinMinerBlock @Nullable [][] byState, @NotNull MaterialBitSet types, int tagEpoch) {
+        this.wildcard = wildcard;
+        this.byType = byType;
+        this.byState = byState;
+        this.types = types;
+        this.tagEpoch = tagEpoch;
+    }
+
+    /*
+     * Whether or not the tags expanded into this index are still current. Indices without tags never go stale.
+     */
+    boolean isUpToDate() {
+        return tagEpoch == NO_TAGS || tagEpoch == VeinMinerBlockTag.getEpoch();
+    }
+
+    /*
+     * Every Material with at least one state matched by an entry in the list. Must not be modified.
+     */
+    @NotNull
+    MaterialBitSet getTypes() {
+        return types;
+    }
+
+    boolean containsWildcard() {
+        return wildcard != null;
+    }
+
+    boolean containsType(@NotNull Material type) {
+        return wildcard != null || getByType(type) != null;
+    }
+
+    boolean containsState(@NotNull BlockData state, boolean exact) {
+        return getVeinMinerBlock(state, exact) != null;
+    }
+
+    /*
+     * The most specific matching entry is returned. State entries before types, types before tags,
+     * and tags before the wildcard.
+     */
+    @Nullable
+    VeinMinerBlock getVeinMinerBlock(@NotNull BlockData state, boolean exact) {
+        Material type = state.getMaterial();
+
+        if (byState != null) {
+            VeinMinerBlock[] candidates = byState[type.ordinal()];
+            if (candidates != null) {
+                for (VeinMinerBlock candidate : candidates) {
+                    if (candidate.matchesState(state, exact)) {
+                        return candidate;
+                    }
+                }
+            }
+        }
+
+        VeinMinerBlock block = getByType(type);
+        return (block != null) ? block : wildcard;
+    }
+
+    @Nullable
+    private VeinMinerBlock getByType(@NotNull Material type) {
+        int ordinal = type.ordinal();
+        return (ordinal < byType.length) ? byType[ordinal] : null;
+    }
+
+    @NotNull
+    static BlockListIndex build(@NotNull Iterable<VeinMinerBlock> blocks) {
+        VeinMinerBlock wildcard = null;
+        VeinMinerBlock[] byType = null;
+        VeinMinerBlock[][] byState = null;
+        MaterialBitSet types = new MaterialBitSet();
+        int currentTagEpoch = VeinMinerBlockTag.getEpoch(), tagEpoch = NO_TAGS;
+
+        for (VeinMinerBlock block : blocks) {
+            switch (block) {
+                case VeinMinerBlockWildcard ignore -> {
+                    wildcard = block;
+                    types.addAll(Arrays.asList(MATERIALS));
+                }
+                case VeinMinerBlockType type -> {
+                    if (byType == null) {
+                        byType = new VeinMinerBlock[MATERIALS.length];
+                    }
+
+                    byType[type.getType().ordinal()] = block;
+                    types.add(type.getType());
+                }
+                case VeinMinerBlockTag tag -> {
+                    if (byType == null) {
+                        byType = new VeinMinerBlock[MATERIALS.length];
+                    }
+
+                    tagEpoch = currentTagEpoch;
+
+                    // Type entries take precedence over tags, regardless of the order in which they are visited
+                    for (Material value : tag.getTag().getValues()) {
+                        int ordinal = value.ordinal();
+                        if (!(byType[ordinal] instanceof VeinMinerBlockType)) {
+                            byType[ordinal] = block;
+                        }
+
+                        types.add(value);
+                    }
+                }
+                case VeinMinerBlockState state -> {
+                    if (byState == null) {
+                        byState = new VeinMinerBlock[MATERIALS.length][];
+                    }
+
+                    Material type = state.getState().getMaterial();
+                    types.add(type);
+
+                    int ordinal = type.ordinal();
+                    VeinMinerBlock[] bucket = byState[ordinal];
+                    if (bucket == null) {
+                        byState[ordinal] = new VeinMinerBlock[] {block};
+                    } else {
+                        bucket = Arrays.copyOf(bucket, bucket.length + 1);
+                        bucket[bucket.length - 1] = block;
+                        byState[ordinal] = bucket;
+                    }
+                }
+            }
+        }
+
+        if (wildcard == null && byType == null && byState == null) {
+            return EMPTY;
+        }
+
+        return new BlockListIndex(wildcard, (byType != null) ? byType : EMPTY.byType, byState, types, tagEpoch);
+    }
+
+}
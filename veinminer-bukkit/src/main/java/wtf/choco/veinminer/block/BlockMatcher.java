@@ -0,0 +1,147 @@
+package wtf.choco.veinminer.block;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import wtf.choco.veinminer.util.MaterialBitSet;
+
+/**
+ * A compiled form of the checks made by {@link wtf.choco.veinminer.pattern.PatternUtils#typeMatches(VeinMinerBlock, BlockList, BlockData, BlockData)
+ * PatternUtils#typeMatches()} for a single vein. Every block type that matches regardless of its
+ * state is collected into a {@link MaterialBitSet} up front, so most blocks can be accepted or
+ * rejected from their type alone. Only types with state-qualified entries (such as
+ * {@code minecraft:chest[waterlogged=true]}) require their {@link BlockData} to be compared.
+ * <p>
+ * Matchers are immutable and may safely be shared between threads.
+ */
+public final class BlockMatcher {
+
+    private static final VeinMinerBlockState[] NO_STATES = new VeinMinerBlockState[0];
+
+    private final boolean matchesAll;
+    private final MaterialBitSet types;
+    private final MaterialBitSet statedTypes;
+    private final VeinMinerBlockState[] states;
+
+    private BlockMatcher(boolean matchesAll, MaterialBitSet types, MaterialBitSet statedTypes, VeinMinerBlockState[] states) {
+        this.matchesAll = matchesAll;
+        this.types = types;
+        this.statedTypes = statedTypes;
+        this.states = states;
+    }
+
+    /**
+     * Check whether or not every state of the given block type matches.
+     *
+     * @param type the type to check
+     *
+     * @return true if the type matches regardless of its state, false if it does not match or if
+     * its state has to be checked with {@link #matches(BlockData)}
+     */
+    public boolean matchesType(@NotNull Material type) {
+        return matchesAll || types.contains(type);
+    }
+
+    /**
+     * Check whether or not any state of the given block type could match. If this method returns
+     * false, no state of the given type will match and its {@link BlockData} need not be read.
+     *
+     * @param type the type to check
+     *
+     * @return true if the type may match, false if it never will
+     */
+    public boolean mayMatchType(@NotNull Material type) {
+        return matchesAll || types.contains(type) || statedTypes.contains(type);
+    }
+
+    /**
+     * Check whether or not the given {@link BlockData} matches.
+     *
+     * @param state the state to check
+     *
+     * @return true if matches, false otherwise
+     */
+    public boolean matches(@NotNull BlockData state) {
+        Material type = state.getMaterial();
+        if (matchesType(type)) {
+            return true;
+        }
+
+        if (!statedTypes.contains(type)) {
+            return false;
+        }
+
+        for (VeinMinerBlockState candidate : states) {
+            if (candidate.matchesState(state, false)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Compile a {@link BlockMatcher} matching the same states that
+     * {@link wtf.choco.veinminer.pattern.PatternUtils#typeMatches(VeinMinerBlock, BlockList, BlockData, BlockData)
+     * PatternUtils#typeMatches()} would match for the given arguments.
+     *
+     * @param block the block against which to check states
+     * @param aliasList the alias list, or null if no aliases
+     * @param origin the origin block that was broken
+     *
+     * @return the compiled matcher
+     */
+    @NotNull
+    public static BlockMatcher compile(@NotNull VeinMinerBlock block, @Nullable BlockList aliasList, @NotNull BlockData origin) {
+        Preconditions.checkArgument(block != null, "block must not be null");
+        Preconditions.checkArgument(origin != null, "origin must not be null");
+
+        Compiler compiler = new Compiler();
+
+        // Intangible blocks (tags) only ever match the type of the origin, not every type in the tag
+        if (!block.isTangible()) {
+            compiler.types.add(origin.getMaterial());
+        } else {
+            compiler.add(block);
+        }
+
+        if (aliasList != null) {
+            aliasList.forEach(compiler::add);
+        }
+
+        return compiler.compile();
+    }
+
+    private static final class Compiler {
+
+        private boolean matchesAll = false;
+        private final MaterialBitSet types = new MaterialBitSet();
+        private final MaterialBitSet statedTypes = new MaterialBitSet();
+        private final List<VeinMinerBlockState> states = new ArrayList<>(0);
+
+        private void add(VeinMinerBlock block) {
+            switch (block) {
+                case VeinMinerBlockWildcard wildcard -> this.matchesAll = true;
+                case VeinMinerBlockType type -> this.types.add(type.getType());
+                case VeinMinerBlockTag tag -> this.types.addAll(tag.getMembers());
+                case VeinMinerBlockState state -> {
+                    this.statedTypes.add(state.getState().getMaterial());
+                    this.states.add(state);
+                }
+            }
+        }
+
+        private BlockMatcher compile() {
+            return new BlockMatcher(matchesAll, types, statedTypes, states.isEmpty() ? NO_STATES : states.toArray(VeinMinerBlockState[]::new));
+        }
+
+    }
+
+}
@@ -0,0 +1,65 @@
+package wtf.choco.veinminer.block;
+
+import com.google.common.collect.Iterators;
+
+import java.util.Iterator;
+
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * A BlockList that may be shared freely because it can't be changed. Its hash code is computed
+ * once up front since shared lists tend to end up as (part of) the keys of hash maps.
+ */
+final class UnmodifiableBlockList extends BlockList {
+
+    private final int hashCode;
+
+    UnmodifiableBlockList(@NotNull BlockList list) {
+        super(list);
+        this.hashCode = super.hashCode();
+    }
+
+    @Override
+    public boolean add(@NotNull VeinMinerBlock block) {
+        throw new UnsupportedOperationException("Cannot modify an unmodifiable BlockList");
+    }
+
+    @Override
+    public boolean addAll(@NotNull Iterable<? extends VeinMinerBlock> blocks) {
+        throw new UnsupportedOperationException("Cannot modify an unmodifiable BlockList");
+    }
+
+    @Override
+    public boolean remove(@NotNull VeinMinerBlock block) {
+        throw new UnsupportedOperationException("Cannot modify an unmodifiable BlockList");
+    }
+
+    @Override
+    public boolean remove(@NotNull BlockData state) {
+        throw new UnsupportedOperationException("Cannot modify an unmodifiable BlockList");
+    }
+
+    @Override
+    public boolean removeAll(@NotNull Material type) {
+        throw new UnsupportedOperationException("Cannot modify an unmodifiable BlockList");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("Cannot modify an unmodifiable BlockList");
+    }
+
+    @NotNull
+    @Override
+    public Iterator<VeinMinerBlock> iterator() {
+        return Iterators.unmodifiableIterator(super.iterator());
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+}
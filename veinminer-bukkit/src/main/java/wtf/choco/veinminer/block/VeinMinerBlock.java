@@ -120,6 +120,16 @@ public sealed interface VeinMinerBlock extends Comparable<VeinMinerBlock>
         return VeinMinerBlockWildcard.INSTANCE;
     }
 
+    /**
+     * Refresh the members of every tag-backed {@link VeinMinerBlock}. Tag members are copied when
+     * blocks are created so that matching against them is fast, so this method should be called
+     * whenever the contents of tags may have changed, such as when datapacks are reloaded.
+     */
+    public static void refreshTags() {
+        VeinMinerBlockTag.refresh();
+        BlockList.onTagsRefreshed();
+    }
+
     /**
      * Get a {@link VeinMinerBlock} from a string. Example states:
      * <pre>
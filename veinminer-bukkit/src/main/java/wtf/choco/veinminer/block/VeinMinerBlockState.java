@@ -1,6 +1,8 @@
 package wtf.choco.veinminer.block;
 
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.Material;
 import org.bukkit.block.data.BlockData;
@@ -8,13 +10,30 @@ import org.jetbrains.annotations.NotNull;
 
 /**
  * A type of {@link VeinMinerBlock} backed by a {@link BlockData}.
+ * <p>
+ * The result of matching against each distinct state is remembered (up to a limit), so blocks in a
+ * vein, which tend to share only a handful of states, only have their properties compared once.
  */
 final class VeinMinerBlockState implements VeinMinerBlock {
 
+    // Bounds memory for blocks with many states (e.g. redstone wire) without hurting the common case
+    private static final int MAX_CACHED_MATCHES = 64;
+
+    private final Map<BlockData, Boolean> matches = new ConcurrentHashMap<>();
+
     private final BlockData state;
+    private final Material type;
+    private final String stateString;
 
     VeinMinerBlockState(@NotNull BlockData state) {
         this.state = state;
+        this.type = state.getMaterial();
+        this.stateString = state.getAsString(true);
+    }
+
+    @NotNull
+    BlockData getState() {
+        return state;
     }
 
     @Override
@@ -29,13 +48,31 @@ final class VeinMinerBlockState implements VeinMinerBlock {
 
     @Override
     public boolean matchesState(@NotNull BlockData state, boolean exact) {
-        return state != null && (exact ? state.equals(this.state) : state.matches(this.state));
+        if (state == null || state.getMaterial() != type) {
+            return false;
+        }
+
+        if (exact) {
+            return state.equals(this.state);
+        }
+
+        Boolean cached = matches.get(state);
+        if (cached != null) {
+            return cached;
+        }
+
+        boolean result = state.matches(this.state);
+        if (matches.size() < MAX_CACHED_MATCHES) {
+            this.matches.put(state.clone(), result); // BlockData is mutable, the key must not change after being cached
+        }
+
+        return result;
     }
 
     @NotNull
     @Override
     public String toStateString() {
-        return state.getAsString(true);
+        return stateString;
     }
 
     @Override
@@ -50,7 +87,7 @@ final class VeinMinerBlockState implements VeinMinerBlock {
 
     @Override
     public String toString() {
-        return String.format("VeinMinerBlockState[state=\"%s\"]", state.getAsString(true));
+        return String.format("VeinMinerBlockState[state=\"%s\"]", stateString);
     }
 
 }
@@ -1,19 +1,60 @@
 package wtf.choco.veinminer.block;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.bukkit.Material;
 import org.bukkit.Tag;
 import org.bukkit.block.data.BlockData;
 import org.jetbrains.annotations.NotNull;
 
+import wtf.choco.veinminer.util.MaterialBitSet;
+
 /**
  * A type of {@link VeinMinerBlock} backed by a block {@link Tag}.
+ * <p>
+ * The members of the tag are copied into a {@link MaterialBitSet} when this block is created so that
+ * matching does not need to query the server's tag registry. The copy is taken again the first time
+ * it is used after {@link VeinMinerBlock#refreshTags()} is called.
  */
 final class VeinMinerBlockTag implements VeinMinerBlock {
 
+    private static final AtomicInteger EPOCH = new AtomicInteger();
+
     private final Tag<Material> tag;
+    private volatile Members members;
 
     VeinMinerBlockTag(Tag<Material> tag) {
         this.tag = tag;
+        this.members = snapshot();
+    }
+
+    @NotNull
+    Tag<Material> getTag() {
+        return tag;
+    }
+
+    /*
+     * A snapshot of every Material in this tag. Must not be modified.
+     */
+    @NotNull
+    MaterialBitSet getMembers() {
+        Members members = this.members;
+        if (members.epoch() != EPOCH.get()) {
+            members = snapshot();
+            this.members = members;
+        }
+
+        return members.types();
+    }
+
+    @NotNull
+    private Members snapshot() {
+        // Read the epoch first so that a refresh while copying forces another copy
+        int epoch = EPOCH.get();
+
+        MaterialBitSet types = new MaterialBitSet();
+        types.addAll(tag.getValues());
+        return new Members(epoch, types);
     }
 
     @Override
@@ -23,7 +64,7 @@ final class VeinMinerBlockTag implements VeinMinerBlock {
 
     @Override
     public boolean matchesType(@NotNull Material type) {
-        return tag.isTagged(type);
+        return getMembers().contains(type);
     }
 
     @Override
@@ -52,4 +93,17 @@ final class VeinMinerBlockTag implements VeinMinerBlock {
         return String.format("VeinMinerBlockTag[type=\"%s\"]", tag.getKey().toString());
     }
 
+    /*
+     * The current epoch of tag snapshots, incremented every time tags are refreshed.
+     */
+    static int getEpoch() {
+        return EPOCH.get();
+    }
+
+    static void refresh() {
+        EPOCH.incrementAndGet();
+    }
+
+    private record Members(int epoch, MaterialBitSet types) { }
+
 }
@@ -15,6 +15,11 @@ final class VeinMinerBlockType implements VeinMinerBlock {
         this.type = type;
     }
 
+    @NotNull
+    Material getType() {
+        return type;
+    }
+
     @Override
     public boolean isTangible() {
         return true;
@@ -36,7 +36,11 @@ import wtf.choco.veinminer.data.LegacyImportTask;
 import wtf.choco.veinminer.data.LegacyImportable;
 import wtf.choco.veinminer.language.LanguageFile;
 import wtf.choco.veinminer.language.LanguageKeys;
+import wtf.choco.veinminer.metrics.StatTracker;
+import wtf.choco.veinminer.pattern.AllocationStopReason;
+import wtf.choco.veinminer.pattern.VeinAllocationCache;
 import wtf.choco.veinminer.pattern.VeinMiningPattern;
+import wtf.choco.veinminer.pattern.VeinMiningPatternDefault;
 import wtf.choco.veinminer.player.ActivationStrategy;
 import wtf.choco.veinminer.player.VeinMinerPlayer;
 import wtf.choco.veinminer.tool.VeinMinerToolCategory;
@@ -80,17 +84,31 @@ public final class CommandVeinMiner implements TabExecutor {
             this.plugin.getCategoriesConfig().reload();
             this.plugin.getVeinMinerManager().reloadFromConfig();
             this.plugin.getToolCategoryRegistry().reloadFromConfig();
+            ((VeinMiningPatternDefault) VeinMiningPatternDefault.getInstance()).setFrontierStrategy(plugin.getConfiguration().getDefaultPatternFrontierStrategy());
             this.plugin.getLanguage().reload(plugin.getLogger());
+            this.plugin.getVeinAllocationCache().clear();
 
             // Update configurations for all players
             this.plugin.getPlayerManager().getAll().forEach(veinMinerPlayer -> {
                 veinMinerPlayer.setClientConfig(plugin.getConfiguration().getClientConfiguration(veinMinerPlayer.getPlayer()));
+                veinMinerPlayer.refreshPermissions();
             });
 
             language.send(sender, LanguageKeys.COMMAND_VEINMINER_RELOAD_SUCCESS);
             return true;
         }
 
+        else if (args[0].equalsIgnoreCase("refreshtags")) {
+            if (!sender.hasPermission(VMConstants.PERMISSION_COMMAND_RELOAD)) {
+                sender.sendMessage(language.get(LanguageKeys.COMMAND_INSUFFICIENT_PERMISSIONS));
+                return true;
+            }
+
+            this.plugin.getVeinMinerManager().refreshTags();
+            language.send(sender, LanguageKeys.COMMAND_VEINMINER_REFRESHTAGS_SUCCESS);
+            return true;
+        }
+
         else if (args[0].equalsIgnoreCase("version")) {
             PluginDescriptionFile description = plugin.getDescription();
             String headerFooter = language.get(LanguageKeys.COMMAND_VEINMINER_VERSION_BORDER);
@@ -285,6 +303,22 @@ public final class CommandVeinMiner implements TabExecutor {
             return true;
         }
 
+        else if (args[0].equalsIgnoreCase("stats")) {
+            if (!sender.hasPermission(VMConstants.PERMISSION_COMMAND_STATS)) {
+                language.send(sender, LanguageKeys.COMMAND_INSUFFICIENT_PERMISSIONS);
+                return true;
+            }
+
+            VeinAllocationCache cache = plugin.getVeinAllocationCache();
+            long hits = cache.getHits(), misses = cache.getMisses(), lookups = hits + misses;
+            double hitRate = (lookups > 0) ? (hits * 100.0) / lookups : 0.0;
+
+            language.send(sender, LanguageKeys.COMMAND_VEINMINER_STATS_ALLOCATION_CACHE, hits, misses, hitRate, cache.size());
+            language.send(sender, LanguageKeys.COMMAND_VEINMINER_STATS_CLIPPED_VEINS, StatTracker.getClippedVeins());
+            language.send(sender, LanguageKeys.COMMAND_VEINMINER_STATS_STOPPED_ALLOCATIONS, StatTracker.getAllocationStops(AllocationStopReason.PROBE_LIMIT), StatTracker.getAllocationStops(AllocationStopReason.TIME_LIMIT));
+            return true;
+        }
+
         else if (args[0].equalsIgnoreCase("givetool")) {
             if (!(sender instanceof Player player)) {
                 language.send(sender, LanguageKeys.COMMAND_VEINMINER_GIVETOOL_CONSOLE);
@@ -347,6 +381,7 @@ public final class CommandVeinMiner implements TabExecutor {
 
             suggestions.add("version");
             this.addConditionally(suggestions, "reload", () -> sender.hasPermission(VMConstants.PERMISSION_COMMAND_RELOAD));
+            this.addConditionally(suggestions, "refreshtags", () -> sender.hasPermission(VMConstants.PERMISSION_COMMAND_RELOAD));
             this.addConditionally(suggestions, "blocklist", () -> sender.hasPermission(VMConstants.PERMISSION_COMMAND_BLOCKLIST));
             this.addConditionally(suggestions, "toollist", () -> sender.hasPermission(VMConstants.PERMISSION_COMMAND_TOOLLIST));
             this.addConditionally(suggestions, "givetool", () -> sender.hasPermission(VMConstants.PERMISSION_COMMAND_GIVETOOL));
@@ -354,6 +389,7 @@ public final class CommandVeinMiner implements TabExecutor {
             this.addConditionally(suggestions, "mode", () -> sender.hasPermission(VMConstants.PERMISSION_COMMAND_MODE));
             this.addConditionally(suggestions, "pattern", () -> sender.hasPermission(VMConstants.PERMISSION_COMMAND_PATTERN));
             this.addConditionally(suggestions, "import", () -> sender.hasPermission(VMConstants.PERMISSION_COMMAND_IMPORT));
+            this.addConditionally(suggestions, "stats", () -> sender.hasPermission(VMConstants.PERMISSION_COMMAND_STATS));
 
             return StringUtil.copyPartialMatches(args[0], suggestions, new ArrayList<>());
         }
@@ -466,7 +502,7 @@ public final class CommandVeinMiner implements TabExecutor {
 
     private boolean canVeinMine(Player player) {
         for (VeinMinerToolCategory category : plugin.getToolCategoryRegistry().getAll()) {
-            if (player.hasPermission(VMConstants.PERMISSION_VEINMINE.apply(category))) {
+            if (player.hasPermission(category.getPermission())) {
                 return true;
             }
         }
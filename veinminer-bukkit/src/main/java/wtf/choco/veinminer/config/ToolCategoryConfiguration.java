@@ -114,6 +114,32 @@ public interface ToolCategoryConfiguration extends VeinMiningConfiguration {
     @Override
     public int getMaxVeinSize();
 
+    /**
+     * {@inheritDoc}.
+     * <p>
+     * If this category configuration does not explicitly set a value, it will default to the
+     * global value as set by {@link VeinMinerConfiguration#getMaxAllocationProbes()}.
+     *
+     * @implSpec the default implementation returns 0
+     */
+    @Override
+    public default int getMaxAllocationProbes() {
+        return 0;
+    }
+
+    /**
+     * {@inheritDoc}.
+     * <p>
+     * If this category configuration does not explicitly set a value, it will default to the
+     * global value as set by {@link VeinMinerConfiguration#getMaxAllocationTime()}.
+     *
+     * @implSpec the default implementation returns 0
+     */
+    @Override
+    public default long getMaxAllocationTime() {
+        return 0;
+    }
+
     /**
      * {@inheritDoc}.
      * <p>
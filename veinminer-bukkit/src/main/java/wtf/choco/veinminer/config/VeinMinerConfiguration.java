@@ -13,6 +13,8 @@ import org.jetbrains.annotations.Unmodifiable;
 
 import wtf.choco.veinminer.data.PersistentStorageType;
 import wtf.choco.veinminer.pattern.VeinMiningPattern;
+import wtf.choco.veinminer.pattern.VeinMiningPatternDefault;
+import wtf.choco.veinminer.pattern.VeinMiningPatternDefault.FrontierStrategy;
 import wtf.choco.veinminer.player.ActivationStrategy;
 
 /**
@@ -59,6 +61,15 @@ public interface VeinMinerConfiguration extends VeinMiningConfiguration {
     @NotNull
     public VeinMiningPattern getDefaultVeinMiningPattern();
 
+    /**
+     * Get the {@link FrontierStrategy} used by the {@link VeinMiningPatternDefault default pattern}
+     * to decide the order in which it grows a vein.
+     *
+     * @return the default pattern's frontier strategy
+     */
+    @NotNull
+    public FrontierStrategy getDefaultPatternFrontierStrategy();
+
     /**
      * Get whether or not items should be collected and dropped at the origin location.
      * <p>
@@ -66,6 +77,11 @@ public interface VeinMinerConfiguration extends VeinMiningConfiguration {
      * that occurred as a result of all the blocks being broken will be dropped at the location
      * where the original block was broken. If false, the items will drop individually at the
      * block's broken position, as though the player broke each block separately.
+     * <p>
+     * Collected items are removed from each block's {@link org.bukkit.event.block.BlockDropItemEvent
+     * BlockDropItemEvent} at {@link org.bukkit.event.EventPriority#HIGHEST HIGHEST} priority, so
+     * {@link org.bukkit.event.EventPriority#MONITOR MONITOR} listeners will see no items for blocks
+     * broken as part of a vein.
      *
      * @return true if items will be collected at the source, false if dropped at each block's
      * location
@@ -101,6 +117,48 @@ public interface VeinMinerConfiguration extends VeinMiningConfiguration {
      */
     public boolean isOnlyDamageOnFirstBlock();
 
+    /**
+     * Get whether or not veins should be mined in fast break mode.
+     * <p>
+     * If this value returns true, blocks in a vein (other than the one broken by the player) are
+     * removed directly rather than being broken by the player one at a time. No
+     * {@link org.bukkit.event.block.BlockBreakEvent BlockBreakEvent},
+     * {@link org.bukkit.event.block.BlockDropItemEvent BlockDropItemEvent} or
+     * {@link org.bukkit.event.block.BlockExpEvent BlockExpEvent} is called for those blocks, so
+     * other plugins (including protection plugins) will not be aware of them. Instead, their drops
+     * and experience are computed from the tool, collected at the origin block, and passed to a single
+     * {@link wtf.choco.veinminer.api.event.player.PlayerVeinMineCompleteEvent PlayerVeinMineCompleteEvent}.
+     * This mode is intended only for servers that trust every plugin to be fine with that. Blocks
+     * with a {@link org.bukkit.block.TileState TileState} are never removed in this mode.
+     *
+     * @return true if veins are mined in fast break mode, false to break each block as the player
+     */
+    public boolean isFastBreak();
+
+    /**
+     * Get the maximum amount of blocks a player may break in a single tick while vein mining. Veins
+     * with more blocks than this are broken over several ticks.
+     * <p>
+     * This limit applies to each player separately, not to all players (or to a region) combined.
+     * <p>
+     * This limit does not apply while in {@link #isFastBreak() fast break mode}.
+     *
+     * @return the maximum amount of blocks broken per tick, or 0 if unlimited
+     */
+    public int getMaxBlocksPerTick();
+
+    /**
+     * Get the maximum amount of time, in microseconds, a player's vein mining may take in a single
+     * tick. Veins that take longer than this to break are broken over several ticks.
+     * <p>
+     * This limit applies to each player separately, not to all players (or to a region) combined.
+     * <p>
+     * This limit does not apply while in {@link #isFastBreak() fast break mode}.
+     *
+     * @return the maximum vein mining time per tick in microseconds, or 0 if unlimited
+     */
+    public long getMaxTimePerTick();
+
     /**
      * Get whether or not McMMO's experience system should be nerfed while vein mining.
      * <p>
@@ -43,6 +43,30 @@ public interface VeinMiningConfiguration {
      */
     public int getMaxVeinSize();
 
+    /**
+     * Get the maximum amount of block states a pattern may probe while allocating a single vein.
+     * Should the limit be reached, allocation stops and the blocks allocated so far are mined.
+     *
+     * @return the maximum amount of probes, or 0 if unlimited
+     *
+     * @implSpec the default implementation returns 0
+     */
+    public default int getMaxAllocationProbes() {
+        return 0;
+    }
+
+    /**
+     * Get the maximum amount of time, in microseconds, a pattern may spend allocating a single vein.
+     * Should the limit be reached, allocation stops and the blocks allocated so far are mined.
+     *
+     * @return the maximum allocation time in microseconds, or 0 if unlimited
+     *
+     * @implSpec the default implementation returns 0
+     */
+    public default long getMaxAllocationTime() {
+        return 0;
+    }
+
     /**
      * Get the amount of money to be withdrawn from a player's bank account each time
      * they initiate a vein mine.
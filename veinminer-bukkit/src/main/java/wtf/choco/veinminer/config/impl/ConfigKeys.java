@@ -10,9 +10,13 @@ final class ConfigKeys {
     static final String KEY_PERFORM_UPDATE_CHECKS = "PerformUpdateChecks";
     static final String KEY_DEFAULT_ACTIVATION_STRATEGY = "DefaultActivationStrategy";
     static final String KEY_DEFAULT_VEIN_MINING_PATTERN = "DefaultVeinMiningPattern";
+    static final String KEY_DEFAULT_PATTERN_FRONTIER_STRATEGY = "DefaultPatternFrontierStrategy";
     static final String KEY_COLLECT_ITEMS_AT_SOURCE = "CollectItemsAtSource";
     static final String KEY_COLLECT_EXPERIENCE_AT_SOURCE = "CollectExperienceAtSource";
     static final String KEY_ONLY_DAMAGE_ON_FIRST_BLOCK = "OnlyDamageOnFirstBlock";
+    static final String KEY_FAST_BREAK = "FastBreak";
+    static final String KEY_TICK_BUDGET_MAX_BLOCKS = "TickBudget.MaxBlocks";
+    static final String KEY_TICK_BUDGET_MAX_TIME = "TickBudget.MaxTime";
     static final String KEY_NERF_MCMMO = "NerfMcMMO";
     static final String KEY_JOBS_NERF_EXPERIENCE_GAIN = "Jobs.NerfExperienceGain";
     static final String KEY_JOBS_NERF_CURRENCY_GAIN = "Jobs.NerfCurrencyGain";
@@ -42,6 +46,8 @@ final class ConfigKeys {
     static final String KEY_REPAIR_FRIENDLY = "RepairFriendly";
     static final String KEY_REPAIR_FRIENDLY_DURABILITY = "RepairFriendlyDurability";
     static final String KEY_MAX_VEIN_SIZE = "MaxVeinSize";
+    static final String KEY_MAX_ALLOCATION_PROBES = "MaxAllocationProbes";
+    static final String KEY_MAX_ALLOCATION_TIME = "MaxAllocationTime";
     static final String KEY_COST = "Cost";
     static final String KEY_DISABLED_WORLDS = "DisabledWorlds";
 
@@ -9,6 +9,7 @@ import java.util.Set;
 
 import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
@@ -17,27 +18,33 @@ import wtf.choco.veinminer.block.BlockList;
 import wtf.choco.veinminer.block.VeinMinerBlock;
 import wtf.choco.veinminer.config.ConfigWrapper;
 import wtf.choco.veinminer.config.ToolCategoryConfiguration;
-import wtf.choco.veinminer.config.VeinMinerConfiguration;
+import wtf.choco.veinminer.config.impl.StandardVeinMinerConfiguration.Snapshot;
 
 import static wtf.choco.veinminer.config.impl.ConfigKeys.*;
 
 /**
  * A standard {@link ToolCategoryConfiguration} implementation.
+ * <p>
+ * Like {@link StandardVeinMinerConfiguration}, values read while vein mining are served from an
+ * immutable snapshot that is recompiled once either this category's or its parent's config has
+ * been reloaded.
  */
 public final class StandardToolCategoryConfiguration implements ToolCategoryConfiguration {
 
     private final String categoryId;
     private final ConfigWrapper categoriesConfig;
-    private final VeinMinerConfiguration parent;
+    private final StandardVeinMinerConfiguration parent;
+
+    private volatile CategorySnapshot snapshot;
 
     /**
      * Construct a new {@link StandardToolCategoryConfiguration}.
      *
      * @param categoryId the id of the category for this configuration
      * @param categoriesConfig the {@link ConfigWrapper} instance for the categories.yml
-     * @param parent the parent {@link VeinMinerConfiguration}
+     * @param parent the parent {@link StandardVeinMinerConfiguration}
      */
-    StandardToolCategoryConfiguration(@NotNull String categoryId, @NotNull ConfigWrapper categoriesConfig, @NotNull VeinMinerConfiguration parent) {
+    StandardToolCategoryConfiguration(@NotNull String categoryId, @NotNull ConfigWrapper categoriesConfig, @NotNull StandardVeinMinerConfiguration parent) {
         this.categoryId = categoryId;
         this.categoriesConfig = categoriesConfig;
         this.parent = parent;
@@ -45,43 +52,49 @@ public final class StandardToolCategoryConfiguration implements ToolCategoryConf
 
     @Override
     public boolean isRepairFriendly() {
-        return getCategoryConfig().getBoolean(KEY_REPAIR_FRIENDLY, parent.isRepairFriendly());
+        return getSnapshot().repairFriendly();
     }
 
     @Override
     public int getRepairFriendlyDurability() {
-        return Math.max(getCategoryConfig().getInt(KEY_REPAIR_FRIENDLY_DURABILITY, parent.getRepairFriendlyDurability()), 1);
+        return getSnapshot().repairFriendlyDurability();
     }
 
     @Override
     public int getMaxVeinSize() {
-        return getCategoryConfig().getInt(KEY_MAX_VEIN_SIZE, parent.getMaxVeinSize());
+        return getSnapshot().maxVeinSize();
+    }
+
+    @Override
+    public int getMaxAllocationProbes() {
+        return getSnapshot().maxAllocationProbes();
+    }
+
+    @Override
+    public long getMaxAllocationTime() {
+        return getSnapshot().maxAllocationTime();
     }
 
     @Override
     public double getCost() {
-        return getCategoryConfig().getDouble(KEY_COST, parent.getCost());
+        return getSnapshot().cost();
     }
 
     @Override
     public boolean isDisabledWorld(@NotNull String worldName) {
-        return getDisabledWorlds().contains(worldName);
+        return getSnapshot().disabledWorlds().contains(worldName);
     }
 
     @NotNull
     @Unmodifiable
     @Override
     public Set<String> getDisabledWorlds() {
-        if (!getCategoryConfig().contains(KEY_DISABLED_WORLDS, true)) {
-            return parent.getDisabledWorlds();
-        }
-
-        return ImmutableSet.copyOf(getCategoryConfig().getStringList(KEY_DISABLED_WORLDS));
+        return getSnapshot().disabledWorlds();
     }
 
     @Override
     public int getPriority() {
-        return getCategoryConfig().getInt(KEY_PRIORITY, 0);
+        return getSnapshot().priority();
     }
 
     @Nullable
@@ -125,9 +138,28 @@ public final class StandardToolCategoryConfiguration implements ToolCategoryConf
         return ImmutableList.copyOf(getCategoryConfig().getStringList(KEY_BLOCK_LIST));
     }
 
+    @NotNull
+    private CategorySnapshot getSnapshot() {
+        FileConfiguration config = categoriesConfig.asRawConfig();
+        Snapshot parentSnapshot = parent.getSnapshot();
+
+        CategorySnapshot snapshot = this.snapshot;
+        if (snapshot == null || snapshot.source() != config || snapshot.parent() != parentSnapshot) {
+            snapshot = CategorySnapshot.compile(getCategoryConfig(config), config, parentSnapshot);
+            this.snapshot = snapshot;
+        }
+
+        return snapshot;
+    }
+
     @NotNull
     private ConfigurationSection getCategoryConfig() {
-        ConfigurationSection section = categoriesConfig.asRawConfig().getConfigurationSection(categoryId);
+        return getCategoryConfig(categoriesConfig.asRawConfig());
+    }
+
+    @NotNull
+    private ConfigurationSection getCategoryConfig(@NotNull FileConfiguration config) {
+        ConfigurationSection section = config.getConfigurationSection(categoryId);
 
         if (section == null) {
             throw new IllegalStateException("Configuration for category \"" + categoryId + "\" does not exist.");
@@ -136,4 +168,43 @@ public final class StandardToolCategoryConfiguration implements ToolCategoryConf
         return section;
     }
 
+    /*
+     * An immutable copy of the values in this category's section of categories.yml that are read
+     * while vein mining, falling back to those of the parent snapshot where they are not set.
+     */
+    private record CategorySnapshot(
+            @NotNull FileConfiguration source,
+            @NotNull Snapshot parent,
+            boolean repairFriendly,
+            int repairFriendlyDurability,
+            int maxVeinSize,
+            int maxAllocationProbes,
+            long maxAllocationTime,
+            double cost,
+            @NotNull Set<String> disabledWorlds,
+            int priority
+    ) {
+
+        @NotNull
+        private static CategorySnapshot compile(@NotNull ConfigurationSection section, @NotNull FileConfiguration source, @NotNull Snapshot parent) {
+            Set<String> disabledWorlds = section.contains(KEY_DISABLED_WORLDS, true)
+                    ? ImmutableSet.copyOf(section.getStringList(KEY_DISABLED_WORLDS))
+                    : parent.disabledWorlds();
+
+            return new CategorySnapshot(
+                    source,
+                    parent,
+                    section.getBoolean(KEY_REPAIR_FRIENDLY, parent.repairFriendly()),
+                    Math.max(section.getInt(KEY_REPAIR_FRIENDLY_DURABILITY, parent.repairFriendlyDurability()), 1),
+                    section.getInt(KEY_MAX_VEIN_SIZE, parent.maxVeinSize()),
+                    Math.max(section.getInt(KEY_MAX_ALLOCATION_PROBES, parent.maxAllocationProbes()), 0),
+                    Math.max(section.getLong(KEY_MAX_ALLOCATION_TIME, parent.maxAllocationTime()), 0L),
+                    section.getDouble(KEY_COST, parent.cost()),
+                    disabledWorlds,
+                    section.getInt(KEY_PRIORITY, 0)
+            );
+        }
+
+    }
+
 }
@@ -4,15 +4,18 @@ import com.google.common.base.Enums;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 
 import java.io.File;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
 import org.bukkit.GameMode;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.permissions.Permissible;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -27,6 +30,7 @@ import wtf.choco.veinminer.config.VeinMinerConfiguration;
 import wtf.choco.veinminer.data.PersistentStorageType;
 import wtf.choco.veinminer.pattern.VeinMiningPattern;
 import wtf.choco.veinminer.pattern.VeinMiningPatternDefault;
+import wtf.choco.veinminer.pattern.VeinMiningPatternDefault.FrontierStrategy;
 import wtf.choco.veinminer.player.ActivationStrategy;
 import wtf.choco.veinminer.util.VMConstants;
 
@@ -34,11 +38,16 @@ import static wtf.choco.veinminer.config.impl.ConfigKeys.*;
 
 /**
  * A standard {@link VeinMinerConfiguration} implementation.
+ * <p>
+ * Values read while vein mining are compiled into an immutable snapshot the first time they are
+ * requested after the config has been (re)loaded, and are served from that snapshot thereafter.
  */
 public final class StandardVeinMinerConfiguration implements VeinMinerConfiguration {
 
     private final VeinMinerPlugin plugin;
 
+    private volatile Snapshot snapshot;
+
     /**
      * Construct a new {@link StandardVeinMinerConfiguration}.
      *
@@ -85,97 +94,126 @@ public final class StandardVeinMinerConfiguration implements VeinMinerConfigurat
         return pattern;
     }
 
+    @NotNull
+    @Override
+    public FrontierStrategy getDefaultPatternFrontierStrategy() {
+        FrontierStrategy strategy = FrontierStrategy.BREADTH_FIRST;
+
+        String strategyString = plugin.getConfig().getString(KEY_DEFAULT_PATTERN_FRONTIER_STRATEGY);
+        if (strategyString != null) {
+            strategy = Enums.getIfPresent(FrontierStrategy.class, strategyString.toUpperCase()).or(strategy);
+        }
+
+        return strategy;
+    }
+
     @Override
     public boolean isCollectItemsAtSource() {
-        return plugin.getConfig().getBoolean(KEY_COLLECT_ITEMS_AT_SOURCE, true);
+        return getSnapshot().collectItemsAtSource();
     }
 
     @Override
     public boolean isCollectExperienceAtSource() {
-        return plugin.getConfig().getBoolean(KEY_COLLECT_EXPERIENCE_AT_SOURCE, isCollectItemsAtSource());
+        return getSnapshot().collectExperienceAtSource();
     }
 
     @Override
     public boolean isOnlyDamageOnFirstBlock() {
-        return plugin.getConfig().getBoolean(KEY_ONLY_DAMAGE_ON_FIRST_BLOCK, true);
+        return getSnapshot().onlyDamageOnFirstBlock();
+    }
+
+    @Override
+    public boolean isFastBreak() {
+        return getSnapshot().fastBreak();
+    }
+
+    @Override
+    public int getMaxBlocksPerTick() {
+        return getSnapshot().maxBlocksPerTick();
+    }
+
+    @Override
+    public long getMaxTimePerTick() {
+        return getSnapshot().maxTimePerTick();
     }
 
     @Override
     public boolean isNerfMcMMO() {
-        return plugin.getConfig().getBoolean(KEY_NERF_MCMMO, false);
+        return getSnapshot().nerfMcMMO();
     }
 
     @Override
     public boolean isNerfJobsExperienceGain() {
-        return plugin.getConfig().getBoolean(KEY_JOBS_NERF_EXPERIENCE_GAIN, false);
+        return getSnapshot().nerfJobsExperienceGain();
     }
 
     @Override
     public boolean isNerfJobsCurrencyGain() {
-        return plugin.getConfig().getBoolean(KEY_JOBS_NERF_CURRENCY_GAIN, false);
+        return getSnapshot().nerfJobsCurrencyGain();
     }
 
     @Override
     public boolean isRepairFriendly() {
-        return plugin.getConfig().getBoolean(KEY_REPAIR_FRIENDLY, false);
+        return getSnapshot().repairFriendly();
     }
 
     @Override
     public int getRepairFriendlyDurability() {
-        return Math.max(plugin.getConfig().getInt(KEY_REPAIR_FRIENDLY_DURABILITY, 1), 1);
+        return getSnapshot().repairFriendlyDurability();
     }
 
     @Override
     public int getMaxVeinSize() {
-        return plugin.getConfig().getInt(KEY_MAX_VEIN_SIZE, 64);
+        return getSnapshot().maxVeinSize();
+    }
+
+    @Override
+    public int getMaxAllocationProbes() {
+        return getSnapshot().maxAllocationProbes();
+    }
+
+    @Override
+    public long getMaxAllocationTime() {
+        return getSnapshot().maxAllocationTime();
     }
 
     @Override
     public double getCost() {
-        return plugin.getConfig().getDouble(KEY_COST, 0.0D);
+        return getSnapshot().cost();
     }
 
     @Override
     public boolean isDisabledWorld(@NotNull String worldName) {
-        return getDisabledWorlds().contains(worldName);
+        return getSnapshot().disabledWorlds().contains(worldName);
     }
 
     @NotNull
     @Unmodifiable
     @Override
     public Set<String> getDisabledWorlds() {
-        return ImmutableSet.copyOf(plugin.getConfig().getStringList(KEY_DISABLED_WORLDS));
+        return getSnapshot().disabledWorlds();
     }
 
     @Override
     public boolean isDisabledGameMode(@NotNull GameMode gameMode) {
-        return getDisabledGameModes().contains(gameMode);
+        return getSnapshot().disabledGameModes().contains(gameMode);
     }
 
     @NotNull
     @Unmodifiable
     @Override
     public Set<GameMode> getDisabledGameModes() {
-        ImmutableSet.Builder<GameMode> disabledGameModes = ImmutableSet.builder();
-
-        for (String gameModeName : plugin.getConfig().getStringList(KEY_DISABLED_GAME_MODES)) {
-            GameMode gameMode = Enums.getIfPresent(GameMode.class, gameModeName.toUpperCase()).orNull();
-            if (gameMode != null) {
-                disabledGameModes.add(gameMode);
-            }
-        }
-
-        return disabledGameModes.build();
+        return getSnapshot().disabledGameModes();
     }
 
     @Override
     public float getHungerModifier() {
-        return Math.max((float) plugin.getConfig().getDouble(KEY_HUNGER_HUNGER_MODIFIER, 4.0D), 0.0F);
+        return getSnapshot().hungerModifier();
     }
 
     @Override
     public int getMinimumFoodLevel() {
-        return Math.max(plugin.getConfig().getInt(KEY_HUNGER_MINIMUM_FOOD_LEVEL, 1), 0);
+        return getSnapshot().minimumFoodLevel();
     }
 
     @NotNull
@@ -314,4 +352,86 @@ public final class StandardVeinMinerConfiguration implements VeinMinerConfigurat
         return new StandardToolCategoryConfiguration(categoryId, categoriesConfig, this);
     }
 
+    /*
+     * Get the snapshot of the currently loaded config, compiling a new one if the config has been
+     * reloaded since the last snapshot was taken. Reloading replaces the FileConfiguration instance
+     * entirely, so comparing identities is enough to tell whether or not a snapshot is stale.
+     */
+    @NotNull
+    Snapshot getSnapshot() {
+        FileConfiguration config = plugin.getConfig();
+
+        Snapshot snapshot = this.snapshot;
+        if (snapshot == null || snapshot.source() != config) {
+            snapshot = Snapshot.compile(config);
+            this.snapshot = snapshot;
+        }
+
+        return snapshot;
+    }
+
+    /*
+     * An immutable copy of the values in config.yml that are read while vein mining.
+     */
+    record Snapshot(
+            @NotNull FileConfiguration source,
+            boolean collectItemsAtSource,
+            boolean collectExperienceAtSource,
+            boolean onlyDamageOnFirstBlock,
+            boolean fastBreak,
+            int maxBlocksPerTick,
+            long maxTimePerTick,
+            boolean nerfMcMMO,
+            boolean nerfJobsExperienceGain,
+            boolean nerfJobsCurrencyGain,
+            boolean repairFriendly,
+            int repairFriendlyDurability,
+            int maxVeinSize,
+            int maxAllocationProbes,
+            long maxAllocationTime,
+            double cost,
+            @NotNull Set<String> disabledWorlds,
+            @NotNull Set<GameMode> disabledGameModes,
+            float hungerModifier,
+            int minimumFoodLevel
+    ) {
+
+        @NotNull
+        private static Snapshot compile(@NotNull FileConfiguration config) {
+            boolean collectItemsAtSource = config.getBoolean(KEY_COLLECT_ITEMS_AT_SOURCE, true);
+
+            Set<GameMode> disabledGameModes = EnumSet.noneOf(GameMode.class);
+            for (String gameModeName : config.getStringList(KEY_DISABLED_GAME_MODES)) {
+                GameMode gameMode = Enums.getIfPresent(GameMode.class, gameModeName.toUpperCase()).orNull();
+                if (gameMode != null) {
+                    disabledGameModes.add(gameMode);
+                }
+            }
+
+            return new Snapshot(
+                    config,
+                    collectItemsAtSource,
+                    config.getBoolean(KEY_COLLECT_EXPERIENCE_AT_SOURCE, collectItemsAtSource),
+                    config.getBoolean(KEY_ONLY_DAMAGE_ON_FIRST_BLOCK, true),
+                    config.getBoolean(KEY_FAST_BREAK, false),
+                    Math.max(config.getInt(KEY_TICK_BUDGET_MAX_BLOCKS, 64), 0),
+                    Math.max(config.getLong(KEY_TICK_BUDGET_MAX_TIME, 2000L), 0L),
+                    config.getBoolean(KEY_NERF_MCMMO, false),
+                    config.getBoolean(KEY_JOBS_NERF_EXPERIENCE_GAIN, false),
+                    config.getBoolean(KEY_JOBS_NERF_CURRENCY_GAIN, false),
+                    config.getBoolean(KEY_REPAIR_FRIENDLY, false),
+                    Math.max(config.getInt(KEY_REPAIR_FRIENDLY_DURABILITY, 1), 1),
+                    config.getInt(KEY_MAX_VEIN_SIZE, 64),
+                    Math.max(config.getInt(KEY_MAX_ALLOCATION_PROBES, 0), 0),
+                    Math.max(config.getLong(KEY_MAX_ALLOCATION_TIME, 0L), 0L),
+                    config.getDouble(KEY_COST, 0.0D),
+                    ImmutableSet.copyOf(config.getStringList(KEY_DISABLED_WORLDS)),
+                    Sets.immutableEnumSet(disabledGameModes),
+                    Math.max((float) config.getDouble(KEY_HUNGER_HUNGER_MODIFIER, 4.0D), 0.0F),
+                    Math.max(config.getInt(KEY_HUNGER_MINIMUM_FOOD_LEVEL, 1), 0)
+            );
+        }
+
+    }
+
 }
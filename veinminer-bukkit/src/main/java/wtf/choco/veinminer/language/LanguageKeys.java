@@ -15,7 +15,11 @@ public final class LanguageKeys {
     public static final String COMMAND_INVALID_KEY = "command.invalid_key";
     public static final String COMMAND_UNKNOWN_CATEGORY = "command.unknown_category";
     public static final String COMMAND_UNKNOWN_ITEM = "command.unknown_item";
+    public static final String COMMAND_VEINMINER_REFRESHTAGS_SUCCESS = "command.veinminer.refreshtags.success";
     public static final String COMMAND_VEINMINER_RELOAD_SUCCESS = "command.veinminer.reload.success";
+    public static final String COMMAND_VEINMINER_STATS_ALLOCATION_CACHE = "command.veinminer.stats.allocation_cache";
+    public static final String COMMAND_VEINMINER_STATS_CLIPPED_VEINS = "command.veinminer.stats.clipped_veins";
+    public static final String COMMAND_VEINMINER_STATS_STOPPED_ALLOCATIONS = "command.veinminer.stats.stopped_allocations";
     public static final String COMMAND_VEINMINER_VERSION_BORDER = "command.veinminer.version.border";
     public static final String COMMAND_VEINMINER_VERSION_VERSION = "command.veinminer.version.version";
     public static final String COMMAND_VEINMINER_VERSION_VERSION_ALERT = "command.veinminer.version.version_alert";
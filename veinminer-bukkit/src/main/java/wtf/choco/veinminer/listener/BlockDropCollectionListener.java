@@ -2,19 +2,16 @@ package wtf.choco.veinminer.listener;
 
 import java.util.List;
 
-import org.bukkit.Location;
-import org.bukkit.block.Block;
+import org.bukkit.entity.Item;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockDropItemEvent;
 import org.bukkit.event.block.BlockExpEvent;
-import org.bukkit.metadata.MetadataValue;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import wtf.choco.veinminer.VeinMinerPlugin;
-import wtf.choco.veinminer.util.VMConstants;
+import wtf.choco.veinminer.manager.ActiveVeinRegistry.ActiveVein;
 
 public final class BlockDropCollectionListener implements Listener {
 
@@ -24,49 +21,38 @@ public final class BlockDropCollectionListener implements Listener {
         this.plugin = plugin;
     }
 
-    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    // HIGHEST so that plugins modifying drops (auto smelting, auto pickup, etc.) have their say first. Only MONITOR listeners see the items cleared
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     private void onDropVeinMinedItem(BlockDropItemEvent event) {
-        Block block = event.getBlock();
-        if (!block.hasMetadata(VMConstants.METADATA_KEY_TO_BE_VEINMINED)) {
+        ActiveVein vein = plugin.getActiveVeinRegistry().get(event.getBlock());
+        if (vein == null) {
             return;
         }
 
-        if (!plugin.getConfiguration().isCollectItemsAtSource()) {
+        DropAccumulator dropAccumulator = vein.getDropAccumulator();
+        if (dropAccumulator == null) {
             return;
         }
 
-        Location source = find(block, VMConstants.METADATA_KEY_VEINMINER_SOURCE, Location.class);
-        if (source == null) {
-            return;
-        }
-
-        Location sourceFinal = source.clone().add(0.5, 0.5, 0.5);
-        plugin.getFoliaLib().getScheduler().runAtLocation(sourceFinal, wrappedTask -> event.getItems().forEach(item -> plugin.getFoliaLib().getScheduler().teleportAsync(item, sourceFinal)));
+        // Removing the items from the event prevents them from being spawned, they are spawned (merged) once the vein is mined
+        List<Item> items = event.getItems();
+        items.forEach(item -> dropAccumulator.pushDrop(item.getItemStack()));
+        items.clear();
     }
 
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     private void onDropVeinMinedExperience(BlockExpEvent event) {
         int experience = event.getExpToDrop();
         if (experience <= 0) {
             return;
         }
 
-        Block block = event.getBlock();
-        if (!block.hasMetadata(VMConstants.METADATA_KEY_TO_BE_VEINMINED)) {
-            return;
-        }
-
-        if (!plugin.getConfiguration().isCollectExperienceAtSource()) {
-            return;
-        }
-
-        Location source = find(block, VMConstants.METADATA_KEY_VEINMINER_SOURCE, Location.class);
-        if (source == null) {
+        ActiveVein vein = plugin.getActiveVeinRegistry().get(event.getBlock());
+        if (vein == null) {
             return;
         }
 
-        Block sourceBlock = source.getBlock();
-        ExperienceTracker experienceTracker = find(sourceBlock, VMConstants.METADATA_KEY_VEINMINER_EXPERIENCE, ExperienceTracker.class);
+        ExperienceTracker experienceTracker = vein.getExperienceTracker();
         if (experienceTracker == null) {
             return;
         }
@@ -75,18 +61,4 @@ public final class BlockDropCollectionListener implements Listener {
         event.setExpToDrop(0);
     }
 
-    @Nullable
-    private <T> T find(@NotNull Block block, @NotNull String metadataKey, @NotNull Class<T> clazz) {
-        List<MetadataValue> values = block.getMetadata(metadataKey);
-
-        for (MetadataValue value : values) {
-            Object sourceObject = value.value();
-            if (clazz.isInstance(sourceObject)) {
-                return clazz.cast(sourceObject);
-            }
-        }
-
-        return null;
-    }
-
 }
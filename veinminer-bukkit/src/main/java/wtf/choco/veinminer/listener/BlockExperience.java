@@ -0,0 +1,48 @@
+package wtf.choco.veinminer.listener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * The experience vanilla drops when a block is broken with a tool that does not have silk touch.
+ * The API offers no way to compute this without breaking the block, so blocks removed in fast
+ * break mode roll their experience from this table instead. Blocks not in it drop no experience.
+ */
+final class BlockExperience {
+
+    private static final Map<Material, int[]> RANGES = new EnumMap<>(Material.class);
+
+    static {
+        range(0, 1, Material.NETHER_GOLD_ORE);
+        range(0, 2, Material.COAL_ORE, Material.DEEPSLATE_COAL_ORE);
+        range(1, 1, Material.SCULK);
+        range(1, 5, Material.REDSTONE_ORE, Material.DEEPSLATE_REDSTONE_ORE);
+        range(2, 5, Material.LAPIS_ORE, Material.DEEPSLATE_LAPIS_ORE, Material.NETHER_QUARTZ_ORE);
+        range(3, 7, Material.DIAMOND_ORE, Material.DEEPSLATE_DIAMOND_ORE, Material.EMERALD_ORE, Material.DEEPSLATE_EMERALD_ORE);
+        range(5, 5, Material.SCULK_SENSOR, Material.CALIBRATED_SCULK_SENSOR, Material.SCULK_CATALYST, Material.SCULK_SHRIEKER);
+        range(15, 43, Material.SPAWNER);
+    }
+
+    private BlockExperience() { }
+
+    static int roll(@NotNull Material type) {
+        int[] range = RANGES.get(type);
+        if (range == null) {
+            return 0;
+        }
+
+        return (range[0] == range[1]) ? range[0] : ThreadLocalRandom.current().nextInt(range[0], range[1] + 1);
+    }
+
+    private static void range(int min, int max, Material... types) {
+        int[] range = {min, max};
+        for (Material type : types) {
+            RANGES.put(type, range);
+        }
+    }
+
+}
@@ -1,15 +1,30 @@
 package wtf.choco.veinminer.listener;
 
+import com.google.common.collect.Iterators;
+
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.bukkit.Bukkit;
 import org.bukkit.FluidCollisionMode;
+import org.bukkit.GameMode;
+import org.bukkit.GameRule;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.Statistic;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.TileState;
 import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Waterlogged;
+import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -18,16 +33,16 @@ import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.Damageable;
 import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.metadata.FixedMetadataValue;
-import org.bukkit.metadata.LazyMetadataValue;
-import org.bukkit.metadata.LazyMetadataValue.CacheStrategy;
 import org.bukkit.util.RayTraceResult;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import wtf.choco.veinminer.VeinMinerPlugin;
 import wtf.choco.veinminer.anticheat.AntiCheatHook;
+import wtf.choco.veinminer.api.event.player.PlayerVeinMineCompleteEvent;
 import wtf.choco.veinminer.api.event.player.PlayerVeinMineEvent;
 import wtf.choco.veinminer.block.BlockList;
+import wtf.choco.veinminer.block.BlockMatcher;
 import wtf.choco.veinminer.block.VeinMinerBlock;
 import wtf.choco.veinminer.economy.SimpleEconomy;
 import wtf.choco.veinminer.integration.WorldGuardIntegration;
@@ -35,17 +50,22 @@ import wtf.choco.veinminer.language.LanguageFile;
 import wtf.choco.veinminer.language.LanguageKeys;
 import wtf.choco.veinminer.manager.VeinMinerManager;
 import wtf.choco.veinminer.metrics.StatTracker;
+import wtf.choco.veinminer.pattern.BlockAccessor;
+import wtf.choco.veinminer.pattern.BudgetedBlockAccessor;
+import wtf.choco.veinminer.pattern.VeinAllocationCache;
 import wtf.choco.veinminer.pattern.VeinMiningPattern;
 import wtf.choco.veinminer.player.VeinMinerPlayer;
 import wtf.choco.veinminer.tool.VeinMinerToolCategory;
 import wtf.choco.veinminer.tool.VeinMinerToolCategoryHand;
 import wtf.choco.veinminer.util.AttributeUtil;
+import wtf.choco.veinminer.util.BlockPosition;
 import wtf.choco.veinminer.util.VMConstants;
 import wtf.choco.veinminer.util.VMEventFactory;
 
 public final class BreakBlockListener implements Listener {
 
     private static final String METADATA_KEY_BLOCKBREAKEVENT_IGNORE = "blockbreakevent-ignore";
+    private static final BlockFace[] ADJACENT_FACES = {BlockFace.NORTH, BlockFace.EAST, BlockFace.SOUTH, BlockFace.WEST, BlockFace.UP, BlockFace.DOWN};
 
     private final VeinMinerPlugin plugin;
 
@@ -61,39 +81,45 @@ public final class BreakBlockListener implements Listener {
         }
 
         Block origin = event.getBlock();
-        if (origin.hasMetadata(VMConstants.METADATA_KEY_TO_BE_VEINMINED) || origin.hasMetadata(METADATA_KEY_BLOCKBREAKEVENT_IGNORE)) {
+        Material originType = origin.getType();
+        VeinMinerManager veinMinerManager = plugin.getVeinMinerManager();
+
+        // Most blocks broken on the server can't be vein mined at all. Reject them before doing any other work
+        if (!veinMinerManager.mayBeVeinMineable(originType)) {
+            return;
+        }
+
+        if (plugin.getActiveVeinRegistry().isVeinMined(origin) || origin.hasMetadata(METADATA_KEY_BLOCKBREAKEVENT_IGNORE)) {
             return;
         }
 
         Player player = event.getPlayer();
-        ItemStack item = player.getInventory().getItemInMainHand();
+        VeinMinerPlayer veinMinerPlayer = plugin.getPlayerManager().get(player);
+        if (veinMinerPlayer == null) {
+            return;
+        }
 
-        VeinMinerToolCategory category = plugin.getToolCategoryRegistry().get(item, cat -> player.hasPermission(VMConstants.PERMISSION_VEINMINE.apply(cat)));
-        if (category == null) {
+        VeinMinerToolCategory category = veinMinerPlayer.getHeldToolCategory();
+        if (category == null || !veinMinerManager.mayBeVeinMineable(originType, category)) {
             return;
         }
 
-        VeinMinerManager veinMinerManager = plugin.getVeinMinerManager();
         BlockData originBlockData = origin.getBlockData();
 
         if (!veinMinerManager.isVeinMineable(originBlockData, category)) {
             return;
         }
 
-        // Invalid player state check
-        VeinMinerPlayer veinMinerPlayer = plugin.getPlayerManager().get(player);
-        if (veinMinerPlayer == null) {
-            return;
-        }
-
+        // Invalid player state check (the held category is already known to be permitted)
         if (!veinMinerPlayer.isVeinMinerActive()
                 || !veinMinerPlayer.isVeinMinerEnabled(category)
                 || plugin.getConfiguration().isDisabledGameMode(player.getGameMode())
-                || category.getConfiguration().isDisabledWorld(origin.getWorld().getName())
-                || !player.hasPermission(VMConstants.PERMISSION_VEINMINE.apply(category))) {
+                || category.getConfiguration().isDisabledWorld(origin.getWorld().getName())) {
             return;
         }
 
+        ItemStack item = player.getInventory().getItemInMainHand();
+
         LanguageFile language = plugin.getLanguage();
 
         // WorldGuard check
@@ -132,106 +158,268 @@ public final class BreakBlockListener implements Listener {
         VeinMiningPattern pattern = veinMinerPlayer.getVeinMiningPattern();
         BlockList aliasBlockList = veinMinerManager.getAliases(originVeinMinerBlock);
 
-        List<Block> blocks = new ArrayList<>(pattern.allocateBlocks(origin, targetBlockFace, originVeinMinerBlock, category.getConfiguration(), aliasBlockList));
-        blocks.removeIf(Block::isEmpty);
+        VeinAllocationCache cache = plugin.getVeinAllocationCache();
+        VeinAllocationCache.Key cacheKey = VeinAllocationCache.Key.of(origin, originBlockData, targetBlockFace, pattern, category, aliasBlockList);
+        List<Block> allocatedBlocks = getCachedVein(cache, cacheKey, origin, originBlockData, originVeinMinerBlock, aliasBlockList);
+
+        /*
+         * Listeners of the PlayerVeinMineEvent are given (and may modify) the entire vein, so it has to be allocated
+         * up front. If nobody is listening, blocks are instead allocated as they are broken so that nothing is ever
+         * allocated past the point at which the tool breaks or the player gets too hungry.
+         */
+        Iterator<Block> blocks;
+        if (allocatedBlocks == null && PlayerVeinMineEvent.getHandlerList().getRegisteredListeners().length == 0) {
+            BudgetedBlockAccessor accessor = BlockAccessor.budgeted(BlockAccessor.world(origin.getWorld()), category.getConfiguration());
+            blocks = Iterators.filter(accessor.timed(pattern.iterateBlocks(accessor, origin, targetBlockFace, originVeinMinerBlock, category.getConfiguration(), aliasBlockList)), block -> !block.isEmpty());
+        } else {
+            if (allocatedBlocks == null) {
+                BlockAccessor accessor = BlockAccessor.budgeted(BlockAccessor.world(origin.getWorld()), category.getConfiguration());
+                allocatedBlocks = new ArrayList<>(pattern.allocateBlocks(accessor, origin, targetBlockFace, originVeinMinerBlock, category.getConfiguration(), aliasBlockList));
+
+                if (!accessor.isClipped()) {
+                    cache.put(cacheKey, VeinAllocationCache.pack(allocatedBlocks));
+                }
+            }
+
+            allocatedBlocks.removeIf(Block::isEmpty);
+
+            if (allocatedBlocks.isEmpty()) {
+                return;
+            }
+
+            // Fire a new PlayerVeinMineEvent
+            PlayerVeinMineEvent veinmineEvent = VMEventFactory.callPlayerVeinMineEvent(player, origin, originVeinMinerBlock, item, category, allocatedBlocks, pattern);
+            if (veinmineEvent.isCancelled()) {
+                return;
+            }
+
+            blocks = allocatedBlocks.iterator();
+        }
 
-        if (blocks.isEmpty()) {
+        if (!blocks.hasNext()) {
             return;
         }
 
-        // Fire a new PlayerVeinMineEvent
-        PlayerVeinMineEvent veinmineEvent = VMEventFactory.callPlayerVeinMineEvent(player, origin, originVeinMinerBlock, item, category, blocks, pattern);
-        if (veinmineEvent.isCancelled() || blocks.isEmpty()) {
+        if (plugin.getConfiguration().isFastBreak()) {
+            this.fastBreak(player, veinMinerPlayer, origin, category, item, blocks);
             return;
         }
 
-        // Apply metadata to all blocks to be vein mined and all other relevant objects/entities
-        veinMinerPlayer.setVeinMining(true);
-        blocks.forEach(block -> {
-            block.setMetadata(VMConstants.METADATA_KEY_TO_BE_VEINMINED, new FixedMetadataValue(plugin, true));
-            block.setMetadata(VMConstants.METADATA_KEY_VEINMINER_SOURCE, new LazyMetadataValue(plugin, CacheStrategy.CACHE_ETERNALLY, origin::getLocation));
-        });
+        // Blocks are broken by the scheduler, which spreads veins that don't fit in the per tick budget over several ticks
+        BlockMatcher matcher = BlockMatcher.compile(originVeinMinerBlock, aliasBlockList, originBlockData);
+        plugin.getVeinMineScheduler().submit(new VeinMineTask(plugin, player, veinMinerPlayer, origin, category, blocks, matcher));
+    }
 
-        ExperienceTracker experienceTracker = null;
-        if (plugin.getConfiguration().isCollectExperienceAtSource()) {
-            experienceTracker = new ExperienceTracker();
-            origin.setMetadata(VMConstants.METADATA_KEY_VEINMINER_EXPERIENCE, new FixedMetadataValue(plugin, experienceTracker));
-        }
+    private void fastBreak(Player player, VeinMinerPlayer veinMinerPlayer, Block origin, VeinMinerToolCategory category, ItemStack item, Iterator<Block> blocks) {
+        veinMinerPlayer.setVeinMining(true);
 
         // Anticheat support
         List<AntiCheatHook> hooks = plugin.getAnticheatHooks();
         hooks.forEach(h -> h.exempt(player));
 
-        // Actually destroying the allocated blocks
-        int maxDurability = item.getType().getMaxDurability();
-        if (category.getConfiguration().isRepairFriendly()) {
-            maxDurability -= 1; // Make sure the tool has enough durability to mine the current block
-            maxDurability -= category.getConfiguration().getRepairFriendlyDurability(); // Then account for the durability config option
-        }
-
-        float hungerModifier = plugin.getConfiguration().getHungerModifier() * 0.025F;
+        int maxDurability = getMaxDurability(category, item);
+        float hungerModifier = getHungerModifier(plugin, player);
         int minimumFoodLevel = plugin.getConfiguration().getMinimumFoodLevel();
+        String hungryMessage = plugin.getLanguage().get(LanguageKeys.VEINMINER_HUNGRY);
 
-        String hungryMessage = language.get(LanguageKeys.VEINMINER_HUNGRY);
-
-        boolean isHandCategory = category instanceof VeinMinerToolCategoryHand;
-        boolean shouldApplyHunger = !player.hasPermission(VMConstants.PERMISSION_FREE_HUNGER);
+        this.fastBreakBlocks(player, origin, category, item, blocks, maxDurability, hungerModifier, minimumFoodLevel, hungryMessage);
 
-        for (Block block : blocks) {
-            // Apply hunger
-            if (hungerModifier != 0.0 && shouldApplyHunger) {
-                this.applyHungerDebuff(player, hungerModifier);
+        veinMinerPlayer.setVeinMining(false);
 
-                if (player.getFoodLevel() <= minimumFoodLevel) {
-                    if (!hungryMessage.isBlank()) {
-                        player.sendMessage(hungryMessage);
-                    }
+        // Unexempt from anticheats
+        hooks.stream().filter(h -> h.shouldUnexempt(player)).forEach(h -> h.unexempt(player));
+    }
 
+    /*
+     * Fast break mode. Blocks are removed directly rather than being broken by the player, so no events are called for
+     * them. Their drops, experience and tool damage are instead computed here, and applied once every block has been
+     * removed. The origin block is skipped, it is broken by the player (as normal) once this listener returns.
+     */
+    private void fastBreakBlocks(Player player, Block origin, VeinMinerToolCategory category, ItemStack item, Iterator<Block> blocks, int maxDurability, float hungerModifier, int minimumFoodLevel, String hungryMessage) {
+        World world = origin.getWorld();
+        boolean dropItems = player.getGameMode() != GameMode.CREATIVE && !Boolean.FALSE.equals(world.getGameRuleValue(GameRule.DO_TILE_DROPS));
+        boolean dropExperience = dropItems && !item.containsEnchantment(Enchantment.SILK_TOUCH);
+
+        ItemMeta meta = item.getItemMeta();
+        int currentDamage = (meta instanceof Damageable damageable) ? damageable.getDamage() : 0;
+        int maxDamage = item.getType().getMaxDurability() - 1; // The tool is never broken here, the origin block gets the last use
+        boolean damageItem = item.getType().getMaxDurability() > 0 && meta != null && !meta.isUnbreakable() && !plugin.getConfiguration().isOnlyDamageOnFirstBlock();
+        int unbreaking = item.getEnchantmentLevel(Enchantment.UNBREAKING);
+
+        List<BlockState> brokenBlocks = new ArrayList<>();
+        Set<Block> removedBlocks = new HashSet<>();
+        List<ItemStack> drops = new ArrayList<>();
+        int experience = 0;
+        int damage = 0;
+
+        while (blocks.hasNext()) {
+            Block block = blocks.next();
+
+            // Hunger is only applied to blocks that are actually broken, the origin included (as when not in fast break mode)
+            if (block.equals(origin)) {
+                if (hungerModifier != 0.0F && !applyHunger(player, hungerModifier, minimumFoodLevel, hungryMessage)) {
                     break;
                 }
+
+                StatTracker.incrementMinedBlock(block.getType());
+                continue;
             }
 
-            // Check for tool damage
-            if (maxDurability > 0 && !isHandCategory) {
-                if (item == null || item.getType().isAir()) {
-                    break;
-                }
+            // Block entities would lose their contents (or bees, or anything else they hold) when removed directly
+            BlockState state = block.getState();
+            if (state instanceof TileState) {
+                continue;
+            }
 
-                ItemMeta meta = item.getItemMeta();
-                if (meta == null || ((Damageable) meta).getDamage() >= maxDurability) {
-                    break;
-                }
+            if (maxDurability > 0 && currentDamage + damage >= maxDurability) {
+                break;
             }
 
-            // Break the block
-            Material blockType = block.getType();
-            if (block.equals(origin) || player.breakBlock(block)) {
-                StatTracker.incrementMinedBlock(blockType);
+            if (damageItem && currentDamage + damage >= maxDamage) {
+                break;
             }
+
+            if (hungerModifier != 0.0F && !applyHunger(player, hungerModifier, minimumFoodLevel, hungryMessage)) {
+                break;
+            }
+
+            // Same chance to consume durability as vanilla tools with unbreaking
+            if (damageItem && (unbreaking <= 0 || ThreadLocalRandom.current().nextInt(unbreaking + 1) == 0)) {
+                damage++;
+            }
+
+            if (dropItems) {
+                drops.addAll(block.getDrops(item, player));
+            }
+            // Like vanilla, experience is only dropped by blocks that the tool can harvest
+            if (dropExperience && block.isPreferredTool(item)) {
+                experience += BlockExperience.roll(state.getType());
+            }
+
+            brokenBlocks.add(state);
+            removedBlocks.add(block);
         }
 
-        // Remove applied metadata
-        veinMinerPlayer.setVeinMining(false);
-        blocks.forEach(block -> {
-            block.removeMetadata(VMConstants.METADATA_KEY_TO_BE_VEINMINED, plugin);
-            block.removeMetadata(VMConstants.METADATA_KEY_VEINMINER_SOURCE, plugin);
-        });
+        if (brokenBlocks.isEmpty()) {
+            return;
+        }
+
+        BlockData air = Material.AIR.createBlockData(), water = Material.WATER.createBlockData();
+
+        for (BlockState state : brokenBlocks) {
+            Material type = state.getType();
+            boolean waterlogged = state.getBlockData() instanceof Waterlogged waterloggable && waterloggable.isWaterlogged();
+            state.getBlock().setBlockData(waterlogged ? water : air, false);
 
-        // Handle experience dropping if necessary
-        if (experienceTracker != null && experienceTracker.hasExperience()) {
-            Location experienceLocation = origin.getLocation().add(0.5, 0.5, 0.5);
-            experienceTracker.spawnExperienceOrbsAt(experienceLocation);
-            origin.removeMetadata(VMConstants.METADATA_KEY_VEINMINER_EXPERIENCE, plugin);
+            StatTracker.incrementMinedBlock(type);
+            player.incrementStatistic(Statistic.MINE_BLOCK, type);
         }
 
-        // VEINMINER - DONE
+        /*
+         * Every block was removed without physics, otherwise each removal would update its neighbours, most of which are
+         * about to be removed anyway. Only blocks on the edge of the vein have neighbours left to update. Setting a block
+         * to what it already is does nothing, so each of them is put back without physics and removed again with it, by
+         * which point no other part of the vein is left for the update to break (and drop) on its own.
+         */
+        for (BlockState state : brokenBlocks) {
+            Block block = state.getBlock();
+            if (!isOnEdge(block, removedBlocks)) {
+                continue;
+            }
 
-        // Unexempt from anticheats
-        hooks.stream().filter(h -> h.shouldUnexempt(player)).forEach(h -> h.unexempt(player));
+            BlockData replacement = block.getBlockData();
+            block.setBlockData(state.getBlockData(), false);
+            block.setBlockData(replacement, true);
+        }
+
+        // Applied directly in one go. The origin block is broken as normal afterwards, which calls any item damage events
+        if (damage > 0 && item.getItemMeta() instanceof Damageable damageable) {
+            damageable.setDamage(damageable.getDamage() + damage);
+            item.setItemMeta(damageable);
+            player.getInventory().setItemInMainHand(item);
+        }
+
+        PlayerVeinMineCompleteEvent event = VMEventFactory.callPlayerVeinMineCompleteEvent(player, origin, category, Collections.unmodifiableList(brokenBlocks), drops, experience);
+
+        Location source = origin.getLocation().add(0.5, 0.5, 0.5);
+
+        DropAccumulator dropAccumulator = new DropAccumulator();
+        event.getDrops().forEach(dropAccumulator::pushDrop);
+        dropAccumulator.spawnDropsAt(source);
+
+        if (event.getExperience() > 0) {
+            ExperienceTracker experienceTracker = new ExperienceTracker();
+            experienceTracker.pushExperience(event.getExperience());
+            experienceTracker.spawnExperienceOrbsAt(source);
+        }
+    }
+
+    private static boolean isOnEdge(Block block, Set<Block> vein) {
+        for (BlockFace face : ADJACENT_FACES) {
+            if (!vein.contains(block.getRelative(face))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /*
+     * Cached veins may be stale if the world was changed without firing an event, so they are only used if every
+     * block still matches the origin. Otherwise a vein miner could break blocks that were never part of the vein.
+     */
+    @Nullable
+    private List<Block> getCachedVein(VeinAllocationCache cache, VeinAllocationCache.Key key, Block origin, BlockData originBlockData, VeinMinerBlock originVeinMinerBlock, BlockList aliasBlockList) {
+        World world = origin.getWorld();
+        long[] positions = cache.get(key, world, BlockMatcher.compile(originVeinMinerBlock, aliasBlockList, originBlockData));
+        if (positions == null) {
+            return null;
+        }
+
+        List<Block> blocks = new ArrayList<>(positions.length);
+        for (long position : positions) {
+            blocks.add(world.getBlockAt(BlockPosition.unpackX(position), BlockPosition.unpackY(position), BlockPosition.unpackZ(position)));
+        }
+
+        return blocks;
+    }
+
+    // The damage at which a tool has to stop vein mining, or 0 if the tool's damage need not be checked
+    static int getMaxDurability(@NotNull VeinMinerToolCategory category, @NotNull ItemStack item) {
+        if (category instanceof VeinMinerToolCategoryHand) {
+            return 0;
+        }
+
+        int maxDurability = item.getType().getMaxDurability();
+        if (category.getConfiguration().isRepairFriendly()) {
+            maxDurability -= 1; // Make sure the tool has enough durability to mine the current block
+            maxDurability -= category.getConfiguration().getRepairFriendlyDurability(); // Then account for the durability config option
+        }
+
+        return maxDurability;
+    }
+
+    static float getHungerModifier(@NotNull VeinMinerPlugin plugin, @NotNull Player player) {
+        return player.hasPermission(VMConstants.PERMISSION_FREE_HUNGER) ? 0.0F : plugin.getConfiguration().getHungerModifier() * 0.025F;
+    }
+
+    // Returns false (after letting the player know) if the player has become too hungry to continue vein mining
+    static boolean applyHunger(@NotNull Player player, float hungerModifier, int minimumFoodLevel, @NotNull String hungryMessage) {
+        applyHungerDebuff(player, hungerModifier);
+
+        if (player.getFoodLevel() <= minimumFoodLevel) {
+            if (!hungryMessage.isBlank()) {
+                player.sendMessage(hungryMessage);
+            }
+
+            return false;
+        }
+
+        return true;
     }
 
     // Modified version of https://github.com/portablejim/VeinMiner/blob/1.9/src/main/java/portablejim/veinminer/core/MinerInstance.java#L231-L254
-    private void applyHungerDebuff(Player player, float hungerModifier) {
+    private static void applyHungerDebuff(Player player, float hungerModifier) {
         int foodLevel = player.getFoodLevel();
         float saturation = player.getSaturation();
         float exhaustion = player.getExhaustion();
@@ -0,0 +1,77 @@
+package wtf.choco.veinminer.listener;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A simple class accumulating item drops to later spawn them, merged, at a specific {@link Location}.
+ */
+public final class DropAccumulator {
+
+    private final List<ItemStack> drops = new ArrayList<>();
+
+    /**
+     * Construct a new {@link DropAccumulator}.
+     */
+    DropAccumulator() { }
+
+    /**
+     * Push an item drop to this accumulator. If a similar item has already been pushed, its amount
+     * is increased instead.
+     *
+     * @param item the item to push. Null or empty items are ignored
+     */
+    public void pushDrop(@Nullable ItemStack item) {
+        if (item == null || item.getType().isAir() || item.getAmount() <= 0) {
+            return;
+        }
+
+        for (ItemStack drop : drops) {
+            if (drop.isSimilar(item)) {
+                drop.setAmount(drop.getAmount() + item.getAmount());
+                return;
+            }
+        }
+
+        this.drops.add(item.clone());
+    }
+
+    /**
+     * Check whether or not the accumulator has accumulated any drops.
+     *
+     * @return true if there is at least one drop, false if there are none
+     */
+    public boolean hasDrops() {
+        return !drops.isEmpty();
+    }
+
+    /**
+     * Spawn the accumulated drops at the given {@link Location}, one item entity per distinct item
+     * (or more if the amount of an item exceeds its maximum stack size).
+     *
+     * @param location the location at which to spawn the drops
+     */
+    public void spawnDropsAt(@NotNull Location location) {
+        World world = location.getWorld();
+        Preconditions.checkArgument(world != null, "location.getWorld() must not be null");
+
+        for (ItemStack drop : drops) {
+            int maxStackSize = Math.max(drop.getMaxStackSize(), 1);
+
+            for (int remaining = drop.getAmount(); remaining > 0; remaining -= maxStackSize) {
+                ItemStack stack = drop.clone();
+                stack.setAmount(Math.min(remaining, maxStackSize));
+                world.dropItem(location, stack);
+            }
+        }
+    }
+
+}
@@ -2,20 +2,20 @@ package wtf.choco.veinminer.listener;
 
 import com.google.common.base.Preconditions;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.ExperienceOrb;
 import org.jetbrains.annotations.NotNull;
 
 /**
- * A simple class tracking experience values to later spawn them at a specific {@link Location}.
+ * A simple class accumulating experience to later spawn it at a specific {@link Location}.
  */
 public final class ExperienceTracker {
 
-    private List<Integer> experienceValues;
+    // The orb sizes used by vanilla when splitting experience into orbs, largest first
+    private static final int[] ORB_SIZES = {2477, 1237, 617, 307, 149, 73, 37, 17, 7, 3, 1};
+
+    private int experience;
 
     /**
      * Construct a new {@link ExperienceTracker}.
@@ -30,25 +30,22 @@ public final class ExperienceTracker {
     public void pushExperience(int experience) {
         Preconditions.checkArgument(experience > 0, "experience must be > 0, was %s", experience);
 
-        if (experienceValues == null) {
-            this.experienceValues = new ArrayList<>();
-        }
-
-        this.experienceValues.add(experience);
+        this.experience += experience;
     }
 
     /**
      * Check whether or not the tracker has tracked any experience.
      *
-     * @return true if there is at least one experience value, false if there are none
+     * @return true if there is experience to spawn, false if there is none
      */
     public boolean hasExperience() {
-        return experienceValues != null;
+        return experience > 0;
     }
 
     /**
-     * Spawn a series of experience orbs at the given {@link Location} matching the amount and
-     * values pushed to this tracker.
+     * Spawn experience orbs at the given {@link Location} totalling the experience pushed to this
+     * tracker. As few orbs as possible are spawned, split the same way vanilla splits experience
+     * into orbs of standard sizes.
      *
      * @param location the location at which to spawn the experience orbs
      */
@@ -56,7 +53,13 @@ public final class ExperienceTracker {
         World world = location.getWorld();
         Preconditions.checkArgument(world != null, "location.getWorld() must not be null");
 
-        this.experienceValues.forEach(experience -> world.spawn(location, ExperienceOrb.class, orb -> orb.setExperience(experience)));
+        int remaining = experience;
+        for (int orbSize : ORB_SIZES) {
+            while (remaining >= orbSize) {
+                remaining -= orbSize;
+                world.spawn(location, ExperienceOrb.class, orb -> orb.setExperience(orbSize));
+            }
+        }
     }
 
 }
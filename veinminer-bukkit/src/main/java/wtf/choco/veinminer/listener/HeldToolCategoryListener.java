@@ -0,0 +1,93 @@
+package wtf.choco.veinminer.listener;
+
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerItemBreakEvent;
+import org.bukkit.event.player.PlayerItemHeldEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerSwapHandItemsEvent;
+import org.jetbrains.annotations.NotNull;
+
+import wtf.choco.veinminer.VeinMinerPlugin;
+import wtf.choco.veinminer.player.VeinMinerPlayer;
+
+// Invalidates each player's cached held tool category whenever the item in their main hand (or their permissions) may have changed
+public final class HeldToolCategoryListener implements Listener {
+
+    private final VeinMinerPlugin plugin;
+
+    public HeldToolCategoryListener(@NotNull VeinMinerPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onChangeHeldItem(PlayerItemHeldEvent event) {
+        this.invalidate(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onSwapHandItems(PlayerSwapHandItemsEvent event) {
+        this.invalidate(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onInventoryClick(InventoryClickEvent event) {
+        this.invalidate(event.getWhoClicked());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onInventoryDrag(InventoryDragEvent event) {
+        this.invalidate(event.getWhoClicked());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onDropItem(PlayerDropItemEvent event) {
+        this.invalidate(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onPickupItem(EntityPickupItemEvent event) {
+        if (event.getEntity() instanceof Player player) {
+            this.invalidate(player);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onItemBreak(PlayerItemBreakEvent event) {
+        this.invalidate(event.getPlayer());
+    }
+
+    // Permission plugins commonly grant permissions per world
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onChangeWorld(PlayerChangedWorldEvent event) {
+        VeinMinerPlayer veinMinerPlayer = plugin.getPlayerManager().get(event.getPlayer());
+        if (veinMinerPlayer != null) {
+            veinMinerPlayer.refreshPermissions();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onRespawn(PlayerRespawnEvent event) {
+        this.invalidate(event.getPlayer());
+    }
+
+    private void invalidate(@NotNull HumanEntity entity) {
+        if (!(entity instanceof Player player)) {
+            return;
+        }
+
+        VeinMinerPlayer veinMinerPlayer = plugin.getPlayerManager().get(player);
+        if (veinMinerPlayer != null) {
+            veinMinerPlayer.invalidateHeldToolCategory();
+        }
+    }
+
+}
@@ -0,0 +1,25 @@
+package wtf.choco.veinminer.listener;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.ServerLoadEvent;
+import org.jetbrains.annotations.NotNull;
+
+import wtf.choco.veinminer.VeinMinerPlugin;
+
+public final class TagRefreshListener implements Listener {
+
+    private final VeinMinerPlugin plugin;
+
+    public TagRefreshListener(@NotNull VeinMinerPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    // Called once datapacks have been (re)loaded, at which point tag contents may have changed
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onServerLoad(ServerLoadEvent event) {
+        this.plugin.getVeinMinerManager().refreshTags();
+    }
+
+}
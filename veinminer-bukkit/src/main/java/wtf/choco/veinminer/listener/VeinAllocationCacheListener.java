@@ -0,0 +1,95 @@
+package wtf.choco.veinminer.listener;
+
+import java.util.List;
+
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.jetbrains.annotations.NotNull;
+
+import wtf.choco.veinminer.pattern.VeinAllocationCache;
+
+// Must be registered after the BreakBlockListener so that the broken vein is still cached while it is being vein mined
+public final class VeinAllocationCacheListener implements Listener {
+
+    private final VeinAllocationCache cache;
+
+    public VeinAllocationCacheListener(@NotNull VeinAllocationCache cache) {
+        this.cache = cache;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onBlockBreak(BlockBreakEvent event) {
+        this.cache.invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onBlockPlace(BlockPlaceEvent event) {
+        this.cache.invalidateSurrounding(event.getBlock());
+    }
+
+    /*
+     * Blocks changed by the world itself. Physics updates are deliberately not listened to. A single handler
+     * for them has every neighbour update in every world call an event, and cached veins are checked against
+     * the world before being used (and expire soon after) anyway.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onBlockForm(BlockFormEvent event) {
+        this.cache.invalidateSurrounding(event.getBlock()); // Also called for spreading blocks
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onBlockFade(BlockFadeEvent event) {
+        this.cache.invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onBlockFromTo(BlockFromToEvent event) {
+        this.cache.invalidate(event.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        this.cache.invalidateSurrounding(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onBlockExplode(BlockExplodeEvent event) {
+        event.blockList().forEach(cache::invalidate);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onEntityExplode(EntityExplodeEvent event) {
+        event.blockList().forEach(cache::invalidate);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onPistonExtend(BlockPistonExtendEvent event) {
+        this.invalidateMoved(event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onPistonRetract(BlockPistonRetractEvent event) {
+        this.invalidateMoved(event.getBlocks(), event.getDirection());
+    }
+
+    private void invalidateMoved(List<Block> blocks, BlockFace direction) {
+        for (Block block : blocks) {
+            this.cache.invalidate(block);
+            this.cache.invalidateSurrounding(block.getRelative(direction)); // The moved block may now extend a vein
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+package wtf.choco.veinminer.listener;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.ApiStatus.Internal;
+import org.jetbrains.annotations.NotNull;
+
+import wtf.choco.veinminer.VeinMinerPlugin;
+import wtf.choco.veinminer.config.VeinMinerConfiguration;
+
+/**
+ * Schedules the veins broken by players such that no player breaks more blocks in a single tick
+ * than allowed by the {@link VeinMinerConfiguration#getMaxBlocksPerTick() block} and
+ * {@link VeinMinerConfiguration#getMaxTimePerTick() time} budgets. Veins that exceed either budget
+ * are broken over as many ticks as needed on the region owning their origin block. Budgets are
+ * per player. The API offers no way to tell when a region's tick begins, so several players
+ * vein mining in the same region may together exceed them.
+ * <p>
+ * Each player has their own queue of veins, which are broken one after the other. The first slice
+ * of a vein submitted while a player has nothing queued is broken immediately.
+ * <p>
+ * This class is thread safe.
+ * <p>
+ * <strong>NOTE:</strong> Not part of the public API. This class is intended for internal use only.
+ */
+@Internal
+public final class VeinMineScheduler {
+
+    private final Map<UUID, Deque<VeinMineTask>> queues = new HashMap<>();
+
+    private final VeinMinerPlugin plugin;
+
+    /**
+     * Construct a new {@link VeinMineScheduler}.
+     *
+     * @param plugin the plugin instance
+     */
+    public VeinMineScheduler(@NotNull VeinMinerPlugin plugin) {
+        Preconditions.checkArgument(plugin != null, "plugin must not be null");
+        this.plugin = plugin;
+    }
+
+    void submit(@NotNull VeinMineTask task) {
+        UUID playerId = task.getPlayer().getUniqueId();
+
+        boolean idle;
+        synchronized (this) {
+            Deque<VeinMineTask> queue = queues.computeIfAbsent(playerId, ignore -> new ArrayDeque<>());
+            idle = queue.isEmpty();
+            queue.add(task);
+        }
+
+        if (idle) {
+            this.run(playerId, false);
+        }
+    }
+
+    /**
+     * Cancel all veins that have yet to be fully broken. Whatever was collected from them so far is
+     * dropped if the calling thread owns the region of the vein's origin. Otherwise (on Folia, where
+     * the origin belongs to another region) it is discarded, as nothing can be scheduled on that
+     * region while the plugin is disabling.
+     */
+    public void cancelAll() {
+        List<VeinMineTask> tasks = new ArrayList<>();
+
+        synchronized (this) {
+            this.queues.values().forEach(tasks::addAll);
+            this.queues.clear();
+        }
+
+        for (VeinMineTask task : tasks) {
+            if (plugin.getFoliaLib().getScheduler().isOwnedByCurrentRegion(task.getOrigin().getLocation())) {
+                task.finish();
+            }
+        }
+    }
+
+    private void run(UUID playerId, boolean deferred) {
+        VeinMineTask task;
+        synchronized (this) {
+            Deque<VeinMineTask> queue = queues.get(playerId);
+            task = (queue != null) ? queue.peek() : null;
+        }
+
+        // The queue was cancelled in the meantime
+        if (task == null) {
+            return;
+        }
+
+        VeinMinerConfiguration config = plugin.getConfiguration();
+        if (task.run(config.getMaxBlocksPerTick(), TimeUnit.MICROSECONDS.toNanos(config.getMaxTimePerTick()), deferred)) {
+            task.finish();
+
+            synchronized (this) {
+                Deque<VeinMineTask> queue = queues.get(playerId);
+                if (queue == null) {
+                    return;
+                }
+
+                queue.poll();
+                if (queue.isEmpty()) {
+                    this.queues.remove(playerId);
+                    return;
+                }
+
+                task = queue.peek();
+            }
+        }
+
+        this.plugin.getFoliaLib().getScheduler().runAtLocationLater(task.getOrigin().getLocation(), () -> run(playerId, true), 1L);
+    }
+
+}
@@ -0,0 +1,173 @@
+package wtf.choco.veinminer.listener;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.Damageable;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.jetbrains.annotations.NotNull;
+
+import wtf.choco.veinminer.VeinMinerPlugin;
+import wtf.choco.veinminer.anticheat.AntiCheatHook;
+import wtf.choco.veinminer.block.BlockMatcher;
+import wtf.choco.veinminer.language.LanguageKeys;
+import wtf.choco.veinminer.manager.ActiveVeinRegistry;
+import wtf.choco.veinminer.manager.ActiveVeinRegistry.ActiveVein;
+import wtf.choco.veinminer.metrics.StatTracker;
+import wtf.choco.veinminer.pattern.BlockAccessor;
+import wtf.choco.veinminer.pattern.PatternUtils;
+import wtf.choco.veinminer.player.VeinMinerPlayer;
+import wtf.choco.veinminer.tool.VeinMinerToolCategory;
+
+/*
+ * A vein being broken block by block by a player, one slice at a time. Each slice breaks blocks until the vein is done
+ * or the per tick budget it was given is used up, and the VeinMineScheduler runs the next slice on a later tick.
+ *
+ * Anything may have happened between two slices, so every deferred slice first checks that the player is still able
+ * to vein mine with the tool in their hand (the held tool category accounts for both the tool and permissions), and
+ * skips blocks that no longer match the vein. Tool durability and hunger are checked for every block regardless.
+ */
+final class VeinMineTask {
+
+    private final VeinMinerPlugin plugin;
+    private final Player player;
+    private final VeinMinerPlayer veinMinerPlayer;
+    private final Block origin;
+    private final VeinMinerToolCategory category;
+    private final Iterator<Block> blocks;
+    private final BlockMatcher matcher;
+    private final BlockAccessor accessor;
+
+    private final ActiveVein vein;
+
+    VeinMineTask(@NotNull VeinMinerPlugin plugin, @NotNull Player player, @NotNull VeinMinerPlayer veinMinerPlayer, @NotNull Block origin, @NotNull VeinMinerToolCategory category, @NotNull Iterator<Block> blocks, @NotNull BlockMatcher matcher) {
+        this.plugin = plugin;
+        this.player = player;
+        this.veinMinerPlayer = veinMinerPlayer;
+        this.origin = origin;
+        this.category = category;
+        this.blocks = blocks;
+        this.matcher = matcher;
+        this.accessor = BlockAccessor.world(origin.getWorld());
+
+        DropAccumulator dropAccumulator = plugin.getConfiguration().isCollectItemsAtSource() ? new DropAccumulator() : null;
+        ExperienceTracker experienceTracker = plugin.getConfiguration().isCollectExperienceAtSource() ? new ExperienceTracker() : null;
+        this.vein = plugin.getActiveVeinRegistry().begin(player, origin, dropAccumulator, experienceTracker);
+    }
+
+    @NotNull
+    Player getPlayer() {
+        return player;
+    }
+
+    @NotNull
+    Block getOrigin() {
+        return origin;
+    }
+
+    /*
+     * Break the next slice of blocks. Returns true if the vein is done (whether it was fully mined or had to stop), or
+     * false if there are blocks left for another slice.
+     */
+    boolean run(int maxBlocks, long maxNanos, boolean deferred) {
+        if (deferred && !canContinue()) {
+            return true;
+        }
+
+        ItemStack item = player.getInventory().getItemInMainHand();
+        int maxDurability = BreakBlockListener.getMaxDurability(category, item);
+        float hungerModifier = BreakBlockListener.getHungerModifier(plugin, player);
+        int minimumFoodLevel = plugin.getConfiguration().getMinimumFoodLevel();
+        String hungryMessage = plugin.getLanguage().get(LanguageKeys.VEINMINER_HUNGRY);
+
+        long startedAt = (maxNanos > 0) ? System.nanoTime() : 0L;
+        int broken = 0;
+
+        this.veinMinerPlayer.setVeinMining(true);
+
+        // Anticheat support
+        List<AntiCheatHook> hooks = plugin.getAnticheatHooks();
+        hooks.forEach(h -> h.exempt(player));
+
+        ActiveVeinRegistry activeVeinRegistry = plugin.getActiveVeinRegistry();
+
+        // Each block is added to the vein just before it is broken, and all of them are removed once the slice is done
+        try {
+            while (blocks.hasNext()) {
+                if ((maxBlocks > 0 && broken >= maxBlocks) || (maxNanos > 0 && System.nanoTime() - startedAt >= maxNanos)) {
+                    return false;
+                }
+
+                Block block = blocks.next();
+
+                // Skip blocks that were changed since the vein was allocated
+                if (deferred && !block.equals(origin) && !PatternUtils.matches(matcher, accessor, block.getX(), block.getY(), block.getZ())) {
+                    continue;
+                }
+
+                // Apply hunger
+                if (hungerModifier != 0.0F && !BreakBlockListener.applyHunger(player, hungerModifier, minimumFoodLevel, hungryMessage)) {
+                    return true;
+                }
+
+                // Check for tool damage
+                if (maxDurability > 0) {
+                    if (item == null || item.getType().isAir()) {
+                        return true;
+                    }
+
+                    ItemMeta meta = item.getItemMeta();
+                    if (meta == null || ((Damageable) meta).getDamage() >= maxDurability) {
+                        return true;
+                    }
+                }
+
+                this.vein.add(block);
+
+                // Break the block
+                Material blockType = block.getType();
+                if (block.equals(origin) || player.breakBlock(block)) {
+                    StatTracker.incrementMinedBlock(blockType);
+                }
+
+                broken++;
+            }
+
+            return true;
+        } finally {
+            activeVeinRegistry.end(vein);
+            this.veinMinerPlayer.setVeinMining(false);
+
+            // Unexempt from anticheats
+            hooks.stream().filter(h -> h.shouldUnexempt(player)).forEach(h -> h.unexempt(player));
+        }
+    }
+
+    /*
+     * Drop everything collected from the vein. Called once the vein is done, or if it is cancelled before then.
+     */
+    void finish() {
+        DropAccumulator dropAccumulator = vein.getDropAccumulator();
+        if (dropAccumulator != null && dropAccumulator.hasDrops()) {
+            dropAccumulator.spawnDropsAt(vein.getSource());
+        }
+
+        ExperienceTracker experienceTracker = vein.getExperienceTracker();
+        if (experienceTracker != null && experienceTracker.hasExperience()) {
+            experienceTracker.spawnExperienceOrbsAt(vein.getSource());
+        }
+    }
+
+    private boolean canContinue() {
+        return player.isOnline()
+                && player.getWorld().equals(origin.getWorld())
+                && plugin.getFoliaLib().getScheduler().isOwnedByCurrentRegion(player)
+                && veinMinerPlayer.getHeldToolCategory() == category
+                && veinMinerPlayer.isVeinMinerEnabled(category);
+    }
+
+}
@@ -0,0 +1,249 @@
+package wtf.choco.veinminer.manager;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.ApiStatus.Internal;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import wtf.choco.veinminer.listener.DropAccumulator;
+import wtf.choco.veinminer.listener.ExperienceTracker;
+import wtf.choco.veinminer.util.BlockPosition;
+import wtf.choco.veinminer.util.LongObjectHashMap;
+
+/**
+ * A registry of veins that are currently being mined, indexed by the positions of the blocks
+ * being broken in them. Events called while a block in a vein is broken can look up the vein the
+ * block belongs to in constant time.
+ * <p>
+ * This class is thread safe. Each world is locked separately, so veins mined in different worlds
+ * (or on different region threads of different worlds) never wait on each other.
+ * <p>
+ * <strong>NOTE:</strong> Not part of the public API. This class is intended for internal use only.
+ */
+@Internal
+public final class ActiveVeinRegistry {
+
+    // Worlds are never removed so that a vein never holds on to an index that is no longer in use
+    private final Map<UUID, WorldVeins> worlds = new ConcurrentHashMap<>();
+
+    /**
+     * Begin a new vein. Blocks must be {@link ActiveVein#add(Block) added} to it as they are broken,
+     * and it must be {@link #end(ActiveVein) ended} once it has been mined.
+     *
+     * @param player the player mining the vein
+     * @param origin the block broken by the player to start the vein
+     * @param dropAccumulator the accumulator collecting the drops of the vein, or null if drops are
+     * not collected
+     * @param experienceTracker the tracker collecting the experience of the vein, or null if experience
+     * is not collected
+     *
+     * @return the vein
+     */
+    @NotNull
+    public ActiveVein begin(@NotNull Player player, @NotNull Block origin, @Nullable DropAccumulator dropAccumulator, @Nullable ExperienceTracker experienceTracker) {
+        Preconditions.checkArgument(player != null, "player must not be null");
+        Preconditions.checkArgument(origin != null, "origin must not be null");
+
+        WorldVeins world = worlds.computeIfAbsent(origin.getWorld().getUID(), ignore -> new WorldVeins());
+        return new ActiveVein(player, origin, world, dropAccumulator, experienceTracker);
+    }
+
+    /**
+     * Get the vein that the given block is being broken as part of.
+     *
+     * @param block the block
+     *
+     * @return the vein, or null if the block is not being broken as part of a vein
+     */
+    @Nullable
+    public ActiveVein get(@NotNull Block block) {
+        WorldVeins world = worlds.get(block.getWorld().getUID());
+        return (world != null) ? world.get(BlockPosition.pack(block.getX(), block.getY(), block.getZ())) : null;
+    }
+
+    /**
+     * Check whether or not the given block is being broken as part of a vein.
+     *
+     * @param block the block
+     *
+     * @return true if being vein mined, false otherwise
+     */
+    public boolean isVeinMined(@NotNull Block block) {
+        return get(block) != null;
+    }
+
+    /**
+     * End the given vein, removing all of its blocks from this registry. Veins broken over several
+     * ticks are ended after each tick so that blocks placed in the meantime are never considered part
+     * of them, and more blocks may be added to a vein after it has been ended.
+     *
+     * @param vein the vein to end
+     */
+    public void end(@NotNull ActiveVein vein) {
+        Preconditions.checkArgument(vein != null, "vein must not be null");
+
+        if (vein.count == 0) {
+            return;
+        }
+
+        vein.world.removeAll(vein);
+        vein.count = 0;
+    }
+
+    /**
+     * Remove all veins from this registry.
+     */
+    public void clear() {
+        this.worlds.values().forEach(WorldVeins::clear);
+    }
+
+    /**
+     * A vein that is currently being mined.
+     * <p>
+     * <strong>NOTE:</strong> Not part of the public API. This class is intended for internal use only.
+     */
+    @Internal
+    public final class ActiveVein {
+
+        private final Player player;
+        private final Block origin;
+        private final WorldVeins world;
+        private final DropAccumulator dropAccumulator;
+        private final ExperienceTracker experienceTracker;
+
+        private long[] positions = new long[0];
+        private int count;
+
+        private ActiveVein(Player player, Block origin, WorldVeins world, DropAccumulator dropAccumulator, ExperienceTracker experienceTracker) {
+            this.player = player;
+            this.origin = origin;
+            this.world = world;
+            this.dropAccumulator = dropAccumulator;
+            this.experienceTracker = experienceTracker;
+        }
+
+        /**
+         * Add a block that is about to be broken to this vein. The block must be in the same world
+         * as the origin.
+         *
+         * @param block the block to add
+         */
+        public void add(@NotNull Block block) {
+            Preconditions.checkArgument(block != null, "block must not be null");
+
+            long position = BlockPosition.pack(block.getX(), block.getY(), block.getZ());
+            if (count == positions.length) {
+                long[] grown = new long[Math.max(count * 2, 16)];
+                System.arraycopy(positions, 0, grown, 0, count);
+                this.positions = grown;
+            }
+
+            this.positions[count++] = position;
+
+            this.world.put(position, this);
+        }
+
+        /**
+         * Get the player mining this vein.
+         *
+         * @return the player
+         */
+        @NotNull
+        public Player getPlayer() {
+            return player;
+        }
+
+        /**
+         * Get the block broken by the player to start this vein.
+         *
+         * @return the origin block
+         */
+        @NotNull
+        public Block getOrigin() {
+            return origin;
+        }
+
+        /**
+         * Get the location at which drops and experience collected from this vein are spawned.
+         *
+         * @return the source location
+         */
+        @NotNull
+        public Location getSource() {
+            return origin.getLocation().add(0.5, 0.5, 0.5);
+        }
+
+        /**
+         * Get the accumulator collecting the drops of this vein.
+         *
+         * @return the drop accumulator, or null if drops are not collected
+         */
+        @Nullable
+        public DropAccumulator getDropAccumulator() {
+            return dropAccumulator;
+        }
+
+        /**
+         * Get the tracker collecting the experience of this vein.
+         *
+         * @return the experience tracker, or null if experience is not collected
+         */
+        @Nullable
+        public ExperienceTracker getExperienceTracker() {
+            return experienceTracker;
+        }
+
+    }
+
+    /*
+     * The veins being mined in a single world, indexed by position and locked on its own.
+     */
+    private static final class WorldVeins {
+
+        private final LongObjectHashMap<ActiveVein> index = new LongObjectHashMap<>();
+
+        // Read without holding the lock so that events for blocks broken outside of a vein (nearly all of them) bail out early
+        private volatile int size;
+
+        ActiveVein get(long position) {
+            if (size == 0) {
+                return null;
+            }
+
+            synchronized (this) {
+                return index.get(position);
+            }
+        }
+
+        synchronized void put(long position, ActiveVein vein) {
+            if (index.put(position, vein) == null) {
+                this.size++;
+            }
+        }
+
+        synchronized void removeAll(ActiveVein vein) {
+            for (int i = 0; i < vein.count; i++) {
+                long position = vein.positions[i];
+                if (index.get(position) == vein) {
+                    this.index.remove(position);
+                    this.size--;
+                }
+            }
+        }
+
+        synchronized void clear() {
+            this.index.clear();
+            this.size = 0;
+        }
+
+    }
+
+}
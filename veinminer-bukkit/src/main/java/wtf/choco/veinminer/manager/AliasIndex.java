@@ -0,0 +1,73 @@
+package wtf.choco.veinminer.manager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import wtf.choco.veinminer.block.BlockList;
+import wtf.choco.veinminer.block.VeinMinerBlock;
+
+/*
+ * An immutable index of alias definitions, mapping each aliased block (and each aliased Material)
+ * to the merged BlockList of every alias in which it is defined. Merged lists are computed once
+ * when the index is built, are unmodifiable, and are shared between every block with the same set
+ * of aliases, so lookups never have to clone or merge anything.
+ */
+final class AliasIndex {
+
+    static final AliasIndex EMPTY = new AliasIndex(Collections.emptyList());
+
+    private static final Material[] MATERIALS = Material.values();
+
+    private final List<BlockList> aliases;
+    private final Map<VeinMinerBlock, BlockList> byBlock;
+    private final BlockList[] byType;
+
+    AliasIndex(@NotNull List<BlockList> aliases) {
+        this.aliases = List.copyOf(aliases);
+
+        Map<VeinMinerBlock, BlockList> merged = new HashMap<>();
+        for (BlockList alias : this.aliases) {
+            for (VeinMinerBlock block : alias) {
+                merged.computeIfAbsent(block, ignore -> new BlockList()).addAll(alias);
+            }
+        }
+
+        // Blocks aliased by the same lists share the same merged list
+        Map<BlockList, BlockList> interned = new HashMap<>();
+        Map<VeinMinerBlock, BlockList> index = new HashMap<>(merged.size());
+        merged.forEach((block, aliasList) -> index.put(block, interned.computeIfAbsent(aliasList, BlockList::unmodifiable)));
+        this.byBlock = index;
+
+        this.byType = new BlockList[MATERIALS.length];
+        if (!index.isEmpty()) {
+            for (Material type : MATERIALS) {
+                this.byType[type.ordinal()] = index.get(VeinMinerBlock.type(type));
+            }
+        }
+    }
+
+    /*
+     * The alias lists from which this index was built, in the order they were defined.
+     */
+    @NotNull
+    List<BlockList> getAliases() {
+        return aliases;
+    }
+
+    @Nullable
+    BlockList get(@NotNull VeinMinerBlock block) {
+        return byBlock.get(block);
+    }
+
+    @Nullable
+    BlockList get(@NotNull Material type) {
+        return byType[type.ordinal()];
+    }
+
+}
@@ -0,0 +1,79 @@
+package wtf.choco.veinminer.manager;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+
+import wtf.choco.veinminer.block.BlockList;
+import wtf.choco.veinminer.tool.ToolCategoryRegistry;
+import wtf.choco.veinminer.tool.VeinMinerToolCategory;
+import wtf.choco.veinminer.util.MaterialBitSet;
+
+/*
+ * An immutable snapshot of every Material that may be vein mined, both by each registered category
+ * (merged with the global block list) and by any category at all. It is only ever used to reject
+ * blocks quickly, so a type being contained does not mean that every state of it is vein mineable.
+ *
+ * The snapshot remembers the modification counts of BlockList and the category registry from when
+ * it was built, and is out of date as soon as either of them changes.
+ */
+final class MineableTypeIndex {
+
+    private final BlockList globalBlockList;
+    private final long blockListModifications;
+    private final long registryModifications;
+
+    private final MaterialBitSet allTypes;
+    private final Map<VeinMinerToolCategory, MaterialBitSet> categoryTypes;
+
+    private MineableTypeIndex(BlockList globalBlockList, long blockListModifications, long registryModifications, MaterialBitSet allTypes, Map<VeinMinerToolCategory, MaterialBitSet> categoryTypes) {
+        this.globalBlockList = globalBlockList;
+        this.blockListModifications = blockListModifications;
+        this.registryModifications = registryModifications;
+        this.allTypes = allTypes;
+        this.categoryTypes = categoryTypes;
+    }
+
+    boolean isUpToDate(@NotNull BlockList globalBlockList, @NotNull ToolCategoryRegistry registry) {
+        return this.globalBlockList == globalBlockList
+                && blockListModifications == BlockList.getModificationCount()
+                && registryModifications == registry.getModificationCount();
+    }
+
+    boolean mayBeVeinMineable(@NotNull Material type) {
+        return allTypes.contains(type);
+    }
+
+    boolean mayBeVeinMineable(@NotNull Material type, @NotNull VeinMinerToolCategory category) {
+        MaterialBitSet types = categoryTypes.get(category);
+        return (types != null) ? types.contains(type) : allTypes.contains(type);
+    }
+
+    @NotNull
+    static MineableTypeIndex build(@NotNull BlockList globalBlockList, @NotNull ToolCategoryRegistry registry) {
+        // Counts are read first so that changes made while building leave this index out of date
+        long blockListModifications = BlockList.getModificationCount();
+        long registryModifications = registry.getModificationCount();
+
+        MaterialBitSet globalTypes = new MaterialBitSet();
+        globalBlockList.collectTypes(globalTypes);
+
+        MaterialBitSet allTypes = new MaterialBitSet();
+        allTypes.addAll(globalTypes);
+
+        Map<VeinMinerToolCategory, MaterialBitSet> categoryTypes = new IdentityHashMap<>();
+        for (VeinMinerToolCategory category : registry.getAll()) {
+            MaterialBitSet types = new MaterialBitSet();
+            types.addAll(globalTypes);
+            category.getBlockList().collectTypes(types);
+
+            categoryTypes.put(category, types);
+            allTypes.addAll(types);
+        }
+
+        return new MineableTypeIndex(globalBlockList, blockListModifications, registryModifications, allTypes, categoryTypes);
+    }
+
+}
@@ -15,6 +15,7 @@ import wtf.choco.veinminer.block.BlockList;
 import wtf.choco.veinminer.block.VeinMinerBlock;
 import wtf.choco.veinminer.config.AliasDefinition;
 import wtf.choco.veinminer.config.VeinMinerConfiguration;
+import wtf.choco.veinminer.tool.ToolCategoryRegistry;
 import wtf.choco.veinminer.tool.VeinMinerToolCategory;
 
 /**
@@ -23,7 +24,8 @@ import wtf.choco.veinminer.tool.VeinMinerToolCategory;
 public final class VeinMinerManager {
 
     private BlockList globalBlockList = new BlockList();
-    private List<BlockList> aliases = new ArrayList<>(); // There has to be a better way to implement aliases... I just can't think of one
+    private volatile AliasIndex aliasIndex = AliasIndex.EMPTY;
+    private volatile MineableTypeIndex mineableTypeIndex;
 
     private final VeinMinerPlugin plugin;
 
@@ -158,6 +160,53 @@ public final class VeinMinerManager {
         return false;
     }
 
+    /**
+     * Check whether or not any state of the given {@link Material} could possibly be destroyed
+     * using vein miner with any category. If false, the type is guaranteed to not be vein
+     * mineable and no further checks are necessary. If true, {@link #isVeinMineable(BlockData,
+     * VeinMinerToolCategory)} should still be checked.
+     * <p>
+     * This is a much cheaper check than {@link #isVeinMineable(Material)} and is intended to
+     * quickly reject the vast majority of blocks broken on the server that are not vein mineable.
+     *
+     * @param type the type to check
+     *
+     * @return true if the type may be vein mineable, false if it definitely is not
+     */
+    public boolean mayBeVeinMineable(@NotNull Material type) {
+        return getMineableTypeIndex().mayBeVeinMineable(type);
+    }
+
+    /**
+     * Check whether or not any state of the given {@link Material} could possibly be destroyed
+     * using vein miner under the given {@link VeinMinerToolCategory}. If false, the type is
+     * guaranteed to not be vein mineable and no further checks are necessary. If true,
+     * {@link #isVeinMineable(BlockData, VeinMinerToolCategory)} should still be checked.
+     *
+     * @param type the type to check
+     * @param category the category to check
+     *
+     * @return true if the type may be vein mineable, false if it definitely is not
+     */
+    public boolean mayBeVeinMineable(@NotNull Material type, @NotNull VeinMinerToolCategory category) {
+        return getMineableTypeIndex().mayBeVeinMineable(type, category);
+    }
+
+    @NotNull
+    private MineableTypeIndex getMineableTypeIndex() {
+        BlockList globalBlockList = this.globalBlockList;
+        ToolCategoryRegistry registry = plugin.getToolCategoryRegistry();
+
+        // Rebuilt whenever any block list or the registered categories change (reloads, /blocklist, API calls)
+        MineableTypeIndex index = this.mineableTypeIndex;
+        if (index == null || !index.isUpToDate(globalBlockList, registry)) {
+            index = MineableTypeIndex.build(globalBlockList, registry);
+            this.mineableTypeIndex = index;
+        }
+
+        return index;
+    }
+
     /**
      * Get the {@link VeinMinerBlock} instance from the provided {@link VeinMinerToolCategory}'s
      * {@link BlockList} that matches the given {@link BlockData}.
@@ -175,17 +224,23 @@ public final class VeinMinerManager {
 
     /**
      * Add a new alias {@link BlockList}.
+     * <p>
+     * Aliases are indexed as they are added, so changes made to the given list after it has
+     * been added will not be reflected by {@link #getAliases(VeinMinerBlock)}.
      *
      * @param blockList the list of blocks in this alias
      *
      * @return true if the alias was added, false if it was already added
      */
-    public boolean addAlias(@NotNull BlockList blockList) {
+    public synchronized boolean addAlias(@NotNull BlockList blockList) {
+        List<BlockList> aliases = aliasIndex.getAliases();
         if (aliases.contains(blockList)) {
             return false;
         }
 
-        this.aliases.add(blockList);
+        List<BlockList> newAliases = new ArrayList<>(aliases);
+        newAliases.add(blockList);
+        this.aliasIndex = new AliasIndex(newAliases);
         return true;
     }
 
@@ -196,8 +251,14 @@ public final class VeinMinerManager {
      *
      * @return true if the alias was removed, false if it was not already added
      */
-    public boolean removeAlias(@NotNull BlockList blockList) {
-        return aliases.remove(blockList);
+    public synchronized boolean removeAlias(@NotNull BlockList blockList) {
+        List<BlockList> newAliases = new ArrayList<>(aliasIndex.getAliases());
+        if (!newAliases.remove(blockList)) {
+            return false;
+        }
+
+        this.aliasIndex = new AliasIndex(newAliases);
+        return true;
     }
 
     /**
@@ -206,26 +267,38 @@ public final class VeinMinerManager {
      * @param block the block whose aliases to get
      *
      * @return a block list containing all blocks with which the given block is aliased,
-     * or null if this block is not aliased at all. Changes made to the returned list will
-     * not affect alias definitions
+     * or null if this block is not aliased at all. The returned list is shared and cannot
+     * be modified. A modifiable copy may be created with {@link BlockList#clone()}
      */
     @Nullable
     public BlockList getAliases(@NotNull VeinMinerBlock block) {
-        BlockList aliasList = null;
-
-        for (BlockList blockList : aliases) {
-            if (!blockList.contains(block)) {
-                continue;
-            }
+        return aliasIndex.get(block);
+    }
 
-            if (aliasList == null) {
-                aliasList = blockList.clone();
-            } else {
-                aliasList.addAll(blockList);
-            }
-        }
+    /**
+     * Get a {@link BlockList} containing all known aliases for the given {@link Material}.
+     * This is equivalent to calling {@link #getAliases(VeinMinerBlock)} with
+     * {@link VeinMinerBlock#type(Material)}, but does not need to create a new block.
+     *
+     * @param type the type whose aliases to get
+     *
+     * @return a block list containing all blocks with which the given type is aliased,
+     * or null if this type is not aliased at all. The returned list is shared and cannot
+     * be modified. A modifiable copy may be created with {@link BlockList#clone()}
+     */
+    @Nullable
+    public BlockList getAliases(@NotNull Material type) {
+        return aliasIndex.get(type);
+    }
 
-        return aliasList;
+    /**
+     * Refresh the members of every block tag used by block lists and aliases, and discard all
+     * cached vein allocations that were made with the old members. This should be called
+     * whenever the contents of tags may have changed, such as when datapacks are reloaded.
+     */
+    public void refreshTags() {
+        VeinMinerBlock.refreshTags();
+        this.plugin.getVeinAllocationCache().clear();
     }
 
     /**
@@ -233,15 +306,13 @@ public final class VeinMinerManager {
      * in VeinMiner's configuration.
      */
     public void reloadFromConfig() {
-        this.clear();
-
         VeinMinerConfiguration config = plugin.getConfiguration();
 
         // Global block list
         this.setGlobalBlockList(BlockList.parseBlockList(config.getGlobalBlockListKeys(), plugin.getLogger()));
 
         // Aliases
-        int aliasesAdded = 0;
+        List<BlockList> aliases = new ArrayList<>();
         for (AliasDefinition alias : config.getAliases()) {
             List<String> entries = alias.entries();
             if (entries.size() <= 1 && !entries.get(0).startsWith("#")) {
@@ -254,11 +325,14 @@ public final class VeinMinerManager {
                 continue;
             }
 
-            this.addAlias(aliasBlockList);
-            aliasesAdded++;
+            if (!aliases.contains(aliasBlockList)) {
+                aliases.add(aliasBlockList);
+            }
         }
 
-        this.plugin.getLogger().info("Added " + aliasesAdded + " aliases.");
+        // Swapped in all at once so that concurrent lookups never see a partially built index
+        this.aliasIndex = new AliasIndex(aliases);
+        this.plugin.getLogger().info("Added " + aliases.size() + " aliases.");
     }
 
     /**
@@ -266,7 +340,7 @@ public final class VeinMinerManager {
      */
     public void clear() {
         this.globalBlockList.clear();
-        this.aliases.clear();
+        this.aliasIndex = AliasIndex.EMPTY;
     }
 
 }
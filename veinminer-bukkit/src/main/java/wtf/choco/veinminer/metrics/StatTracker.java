@@ -1,9 +1,11 @@
 package wtf.choco.veinminer.metrics;
 
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.bstats.bukkit.Metrics;
 import org.bstats.charts.AdvancedPie;
@@ -11,6 +13,8 @@ import org.bstats.charts.DrilldownPie;
 import org.bukkit.Material;
 import org.jetbrains.annotations.NotNull;
 
+import wtf.choco.veinminer.pattern.AllocationStopReason;
+
 /**
  * A general purpose metric tracker.
  */
@@ -18,6 +22,14 @@ public final class StatTracker {
 
     private static final Map<Material, Integer> MINED_BLOCKS = new HashMap<>();
     private static final Set<AntiCheat> INSTALLED_ANTI_CHEATS = new HashSet<>(2); // Using a Set in the rare case that a server has two anti cheats installed
+    private static final LongAdder CLIPPED_VEINS = new LongAdder();
+    private static final Map<AllocationStopReason, LongAdder> ALLOCATION_STOPS = new EnumMap<>(AllocationStopReason.class);
+
+    static {
+        for (AllocationStopReason reason : AllocationStopReason.values()) {
+            ALLOCATION_STOPS.put(reason, new LongAdder());
+        }
+    }
 
     private StatTracker() { }
 
@@ -57,6 +69,44 @@ public final class StatTracker {
         return data;
     }
 
+    /**
+     * Add one to the amount of veins that were clipped because they reached into an unloaded chunk.
+     */
+    public static void incrementClippedVeins() {
+        CLIPPED_VEINS.increment();
+    }
+
+    /**
+     * Get the amount of veins that were clipped because they reached into an unloaded chunk since
+     * the server started.
+     *
+     * @return the amount of clipped veins
+     */
+    public static long getClippedVeins() {
+        return CLIPPED_VEINS.sum();
+    }
+
+    /**
+     * Add one to the amount of vein allocations that were stopped early for the given reason.
+     *
+     * @param reason the reason for which the allocation was stopped
+     */
+    public static void incrementAllocationStops(@NotNull AllocationStopReason reason) {
+        ALLOCATION_STOPS.get(reason).increment();
+    }
+
+    /**
+     * Get the amount of vein allocations that were stopped early for the given reason since the
+     * server started.
+     *
+     * @param reason the reason
+     *
+     * @return the amount of stopped allocations
+     */
+    public static long getAllocationStops(@NotNull AllocationStopReason reason) {
+        return ALLOCATION_STOPS.get(reason).sum();
+    }
+
     /**
      * Recognize an installed anti cheat.
      *
@@ -0,0 +1,83 @@
+package wtf.choco.veinminer.pattern;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.jetbrains.annotations.NotNull;
+
+import wtf.choco.veinminer.util.LongHashSet;
+import wtf.choco.veinminer.util.LongPriorityQueue;
+import wtf.choco.veinminer.util.LongRingBuffer;
+
+/*
+ * Scratch state for a single pattern allocation. Arenas are pooled per thread and borrowed for the
+ * duration of one allocation, so patterns hold no shared mutable state of their own and can allocate
+ * on any number of threads (Folia region threads, preview workers) at once without locking or
+ * allocating fresh collections on every call.
+ *
+ * Borrowing pops an arena from the current thread's pool, so nested or interleaved allocations on the
+ * same thread each get their own. An arena that is never closed is simply garbage collected, and one
+ * closed on another thread than it was borrowed on (a lazy allocation handed off to a worker) joins that
+ * thread's pool instead.
+ *
+ * Server threads outlive the plugin, so each thread only holds its pool weakly. A strongly held pool would
+ * keep this class (and with it the plugin's class loader) reachable from every thread that ever allocated a
+ * vein long after the plugin was disabled or reloaded. The pool may therefore be collected at any time,
+ * after which the thread simply starts a new one.
+ */
+final class AllocationArena implements AutoCloseable {
+
+    private static final int MAX_POOLED_PER_THREAD = 4;
+
+    // Arenas that had to grow beyond this many visited positions are dropped rather than pooled so that a
+    // single massive vein doesn't pin its scratch space to a thread (or slow down every clear() after it)
+    private static final int MAX_RETAINED_VISITED = 1 << 13;
+
+    private static final ThreadLocal<WeakReference<Deque<AllocationArena>>> POOL = new ThreadLocal<>();
+
+    final LongHashSet visited = new LongHashSet(256);
+    final LongRingBuffer frontier = new LongRingBuffer(64);
+    final LongRingBuffer allocated = new LongRingBuffer(64);
+    final LongPriorityQueue candidates = new LongPriorityQueue(64);
+
+    private AllocationArena() { }
+
+    @Override
+    public void close() {
+        boolean retain = visited.size() <= MAX_RETAINED_VISITED;
+
+        this.visited.clear();
+        this.frontier.clear();
+        this.allocated.clear();
+        this.candidates.clear();
+
+        if (!retain) {
+            return;
+        }
+
+        Deque<AllocationArena> pool = getPool();
+        if (pool.size() < MAX_POOLED_PER_THREAD) {
+            pool.push(this);
+        }
+    }
+
+    @NotNull
+    static AllocationArena borrow() {
+        AllocationArena arena = getPool().poll();
+        return (arena != null) ? arena : new AllocationArena();
+    }
+
+    @NotNull
+    private static Deque<AllocationArena> getPool() {
+        WeakReference<Deque<AllocationArena>> reference = POOL.get();
+        Deque<AllocationArena> pool = (reference != null) ? reference.get() : null;
+        if (pool == null) {
+            pool = new ArrayDeque<>(MAX_POOLED_PER_THREAD);
+            POOL.set(new WeakReference<>(pool));
+        }
+
+        return pool;
+    }
+
+}
@@ -0,0 +1,21 @@
+package wtf.choco.veinminer.pattern;
+
+/**
+ * Represents a reason for which a {@link BudgetedBlockAccessor} stopped an allocation before the
+ * pattern had finished allocating its vein.
+ */
+public enum AllocationStopReason {
+
+    /**
+     * The pattern probed the maximum amount of block states allowed by the
+     * {@link wtf.choco.veinminer.config.VeinMiningConfiguration#getMaxAllocationProbes() configuration}.
+     */
+    PROBE_LIMIT,
+
+    /**
+     * The pattern spent the maximum amount of time allowed by the
+     * {@link wtf.choco.veinminer.config.VeinMiningConfiguration#getMaxAllocationTime() configuration}.
+     */
+    TIME_LIMIT;
+
+}
@@ -0,0 +1,157 @@
+package wtf.choco.veinminer.pattern;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import wtf.choco.veinminer.config.VeinMiningConfiguration;
+
+/**
+ * Provides read access to the block states a {@link VeinMiningPattern} probes while allocating
+ * blocks. Accessors are created for a single allocation and are not thread safe, though an
+ * accessor may be handed off to another thread once created.
+ */
+public interface BlockAccessor {
+
+    /**
+     * Get the {@link World} from which block states are read.
+     *
+     * @return the world
+     */
+    @NotNull
+    public World getWorld();
+
+    /**
+     * Get the {@link BlockData} at the given coordinates.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     *
+     * @return the block data at the given coordinates, or null if the position is not readable
+     * by this accessor (outside of the world's height or outside of the captured area, for instance)
+     */
+    @Nullable
+    public BlockData getBlockData(int x, int y, int z);
+
+    /**
+     * Get the {@link Material} at the given coordinates. Where the type of a block is all that is
+     * needed, this may be considerably cheaper than reading its {@link BlockData}.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     *
+     * @return the type of block at the given coordinates, or null if the position is not readable
+     * by this accessor
+     *
+     * @implSpec the default implementation returns the material of {@link #getBlockData(int, int, int)}
+     */
+    @Nullable
+    public default Material getType(int x, int y, int z) {
+        BlockData data = getBlockData(x, y, z);
+        return data != null ? data.getMaterial() : null;
+    }
+
+    /**
+     * Check whether or not a read from this accessor was refused because the position was outside
+     * of the area available to it (outside of the captured area or in an unloaded chunk, but not
+     * outside of the world's height). Allocations made through a clipped accessor may be missing
+     * blocks that would otherwise have been allocated, and should not be reused.
+     *
+     * @return true if clipped, false otherwise
+     */
+    public default boolean isClipped() {
+        return false;
+    }
+
+    /**
+     * Get a {@link BlockAccessor} that reads block states directly from the given {@link World}.
+     * <p>
+     * The returned accessor never loads chunks. Positions in chunks that are not loaded are not
+     * readable and will return null, and the accessor will be {@link #isClipped() clipped}.
+     * <p>
+     * The returned accessor must only be used from the thread that owns the region being read.
+     *
+     * @param world the world
+     *
+     * @return the block accessor
+     */
+    @NotNull
+    public static BlockAccessor world(@NotNull World world) {
+        Preconditions.checkArgument(world != null, "world must not be null");
+        return new WorldBlockAccessor(world);
+    }
+
+    /**
+     * Capture a {@link BlockAccessor} backed by {@link org.bukkit.ChunkSnapshot ChunkSnapshots} of all
+     * loaded chunks within the given block radius of a position. Chunks are captured immediately,
+     * so this method must be called from the thread that owns the region being captured, but the
+     * returned accessor may then safely be used from any thread.
+     * <p>
+     * Positions outside of the captured radius, or in chunks that were not loaded at the time of
+     * capture, are not readable and will return null.
+     *
+     * @param world the world
+     * @param centerX the x coordinate at the center of the captured area
+     * @param centerZ the z coordinate at the center of the captured area
+     * @param radius the radius (in blocks) around the center to capture
+     *
+     * @return the block accessor
+     */
+    @NotNull
+    public static BlockAccessor snapshot(@NotNull World world, int centerX, int centerZ, int radius) {
+        Preconditions.checkArgument(world != null, "world must not be null");
+        Preconditions.checkArgument(radius >= 0, "radius must be >= 0");
+        return ChunkSnapshotBlockAccessor.capture(world, centerX - radius, centerZ - radius, centerX + radius, centerZ + radius);
+    }
+
+    /**
+     * Capture a {@link BlockAccessor} backed by {@link org.bukkit.ChunkSnapshot ChunkSnapshots} of all
+     * loaded chunks overlapping the given area. Chunks are captured immediately, so this method must be
+     * called from the thread that owns the region being captured, but the returned accessor may then
+     * safely be used from any thread.
+     * <p>
+     * Positions outside of the captured area, or in chunks that were not loaded at the time of
+     * capture, are not readable and will return null.
+     *
+     * @param world the world
+     * @param minX the minimum x coordinate (inclusive) of the captured area
+     * @param minZ the minimum z coordinate (inclusive) of the captured area
+     * @param maxX the maximum x coordinate (inclusive) of the captured area
+     * @param maxZ the maximum z coordinate (inclusive) of the captured area
+     *
+     * @return the block accessor
+     */
+    @NotNull
+    public static BlockAccessor snapshot(@NotNull World world, int minX, int minZ, int maxX, int maxZ) {
+        Preconditions.checkArgument(world != null, "world must not be null");
+        Preconditions.checkArgument(minX <= maxX && minZ <= maxZ, "min coordinates must not be greater than max coordinates");
+        return ChunkSnapshotBlockAccessor.capture(world, minX, minZ, maxX, maxZ);
+    }
+
+    /**
+     * Get a {@link BudgetedBlockAccessor} that reads block states from the given accessor until the
+     * {@link VeinMiningConfiguration#getMaxAllocationProbes() maximum amount of probes} or the
+     * {@link VeinMiningConfiguration#getMaxAllocationTime() maximum allocation time} of the given
+     * configuration has been used up.
+     *
+     * @param delegate the accessor from which to read block states
+     * @param config the configuration whose limits to apply
+     *
+     * @return the budgeted block accessor
+     */
+    @NotNull
+    public static BudgetedBlockAccessor budgeted(@NotNull BlockAccessor delegate, @NotNull VeinMiningConfiguration config) {
+        Preconditions.checkArgument(delegate != null, "delegate must not be null");
+        Preconditions.checkArgument(config != null, "config must not be null");
+        return new BudgetedBlockAccessor(delegate, config.getMaxAllocationProbes(), TimeUnit.MICROSECONDS.toNanos(config.getMaxAllocationTime()));
+    }
+
+}
@@ -0,0 +1,189 @@
+package wtf.choco.veinminer.pattern;
+
+import java.util.Iterator;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import wtf.choco.veinminer.metrics.StatTracker;
+
+/**
+ * A {@link BlockAccessor} that limits the amount of work a pattern may do while allocating a single
+ * vein. Once either the maximum amount of probes or the maximum amount of time has been used up,
+ * every subsequent read returns null, so the pattern runs out of blocks to match and returns what it
+ * has allocated so far. The accessor is then considered {@link #isClipped() clipped} and the reason
+ * for which it stopped is recorded by the {@link StatTracker}.
+ * <p>
+ * Only time spent while the accessor is running counts towards its time budget. Accessors start
+ * running as soon as they are created, which suits eager allocations, whereas lazy allocations that
+ * are interleaved with other work should advance their iterator through {@link #timed(Iterator)}.
+ */
+public final class BudgetedBlockAccessor implements BlockAccessor {
+
+    // Reading the clock is not free, so it is only read once every so many probes
+    private static final int CLOCK_READ_INTERVAL = 16;
+
+    private final BlockAccessor delegate;
+    private final long maxProbes;
+    private final long maxNanos;
+
+    private long probes = 0;
+    private long elapsedNanos = 0;
+    private long resumedAt;
+    private boolean running = true;
+
+    private AllocationStopReason stopReason;
+
+    BudgetedBlockAccessor(@NotNull BlockAccessor delegate, long maxProbes, long maxNanos) {
+        this.delegate = delegate;
+        this.maxProbes = maxProbes;
+        this.maxNanos = maxNanos;
+        this.resumedAt = System.nanoTime();
+    }
+
+    @NotNull
+    @Override
+    public World getWorld() {
+        return delegate.getWorld();
+    }
+
+    @Nullable
+    @Override
+    public BlockData getBlockData(int x, int y, int z) {
+        return tryProbe() ? delegate.getBlockData(x, y, z) : null;
+    }
+
+    @Nullable
+    @Override
+    public Material getType(int x, int y, int z) {
+        return tryProbe() ? delegate.getType(x, y, z) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A budgeted accessor is also clipped if it has stopped because its budget was used up.
+     */
+    @Override
+    public boolean isClipped() {
+        return stopReason != null || delegate.isClipped();
+    }
+
+    /**
+     * Get the reason for which this accessor stopped reading block states.
+     *
+     * @return the stop reason, or null if the budget has not been used up
+     */
+    @Nullable
+    public AllocationStopReason getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * Get the amount of block states read through this accessor so far.
+     *
+     * @return the amount of probes
+     */
+    public long getProbes() {
+        return probes;
+    }
+
+    /**
+     * Wrap an {@link Iterator} lazily allocating blocks through this accessor such that only the time
+     * spent advancing the iterator counts towards the time budget. This accessor stops running until
+     * the returned iterator is next advanced.
+     *
+     * @param iterator the iterator to wrap
+     * @param <T> the type of element
+     *
+     * @return the wrapped iterator
+     */
+    @NotNull
+    public <T> Iterator<T> timed(@NotNull Iterator<T> iterator) {
+        if (maxNanos <= 0) {
+            return iterator;
+        }
+
+        this.pause();
+        return new TimedIterator<>(iterator);
+    }
+
+    // Counts a probe against the budget, or returns false if the budget has been used up
+    private boolean tryProbe() {
+        if (stopReason != null) {
+            return false;
+        }
+
+        if (maxProbes > 0 && probes >= maxProbes) {
+            this.stop(AllocationStopReason.PROBE_LIMIT);
+            return false;
+        }
+
+        if (maxNanos > 0 && (probes % CLOCK_READ_INTERVAL) == 0 && getElapsedNanos() >= maxNanos) {
+            this.stop(AllocationStopReason.TIME_LIMIT);
+            return false;
+        }
+
+        this.probes++;
+        return true;
+    }
+
+    private void stop(AllocationStopReason reason) {
+        this.stopReason = reason;
+        StatTracker.incrementAllocationStops(reason);
+    }
+
+    private long getElapsedNanos() {
+        return running ? elapsedNanos + (System.nanoTime() - resumedAt) : elapsedNanos;
+    }
+
+    private void pause() {
+        if (running) {
+            this.elapsedNanos += System.nanoTime() - resumedAt;
+            this.running = false;
+        }
+    }
+
+    private void resume() {
+        if (!running) {
+            this.resumedAt = System.nanoTime();
+            this.running = true;
+        }
+    }
+
+    private final class TimedIterator<T> implements Iterator<T> {
+
+        private final Iterator<T> delegate;
+
+        private TimedIterator(Iterator<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            resume();
+
+            try {
+                return delegate.hasNext();
+            } finally {
+                pause();
+            }
+        }
+
+        @Override
+        public T next() {
+            resume();
+
+            try {
+                return delegate.next();
+            } finally {
+                pause();
+            }
+        }
+
+    }
+
+}
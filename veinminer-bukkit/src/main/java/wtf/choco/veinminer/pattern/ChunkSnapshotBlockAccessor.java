@@ -0,0 +1,117 @@
+package wtf.choco.veinminer.pattern;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+final class ChunkSnapshotBlockAccessor implements BlockAccessor {
+
+    private final World world;
+    private final int minHeight, maxHeight;
+    private final int minChunkX, minChunkZ, chunksX, chunksZ;
+    private final ChunkSnapshot[] snapshots; // Indexed by [(chunkX - minChunkX) * chunksZ + (chunkZ - minChunkZ)]
+
+    private int lastChunkX, lastChunkZ;
+    private ChunkSnapshot lastSnapshot;
+
+    private boolean clipped = false;
+
+    private ChunkSnapshotBlockAccessor(World world, int minChunkX, int minChunkZ, int chunksX, int chunksZ, ChunkSnapshot[] snapshots) {
+        this.world = world;
+        this.minHeight = world.getMinHeight();
+        this.maxHeight = world.getMaxHeight();
+        this.minChunkX = minChunkX;
+        this.minChunkZ = minChunkZ;
+        this.chunksX = chunksX;
+        this.chunksZ = chunksZ;
+        this.snapshots = snapshots;
+
+        // Prime the cache with a chunk that can never be captured so the first lookup always misses
+        this.lastChunkX = Integer.MIN_VALUE;
+        this.lastChunkZ = Integer.MIN_VALUE;
+    }
+
+    @NotNull
+    @Override
+    public World getWorld() {
+        return world;
+    }
+
+    @Nullable
+    @Override
+    public BlockData getBlockData(int x, int y, int z) {
+        ChunkSnapshot snapshot = getSnapshot(x, y, z);
+        return snapshot != null ? snapshot.getBlockData(x & 15, y, z & 15) : null;
+    }
+
+    @Nullable
+    @Override
+    public Material getType(int x, int y, int z) {
+        ChunkSnapshot snapshot = getSnapshot(x, y, z);
+        return snapshot != null ? snapshot.getBlockType(x & 15, y, z & 15) : null;
+    }
+
+    @Override
+    public boolean isClipped() {
+        return clipped;
+    }
+
+    @Nullable
+    private ChunkSnapshot getSnapshot(int x, int y, int z) {
+        if (y < minHeight || y >= maxHeight) {
+            return null;
+        }
+
+        ChunkSnapshot snapshot = getSnapshot(x >> 4, z >> 4);
+        if (snapshot == null) {
+            this.clipped = true;
+        }
+
+        return snapshot;
+    }
+
+    @Nullable
+    private ChunkSnapshot getSnapshot(int chunkX, int chunkZ) {
+        // Probes are heavily clustered, so most lookups land in the same chunk as the last one
+        if (chunkX == lastChunkX && chunkZ == lastChunkZ) {
+            return lastSnapshot;
+        }
+
+        int relativeX = chunkX - minChunkX, relativeZ = chunkZ - minChunkZ;
+        ChunkSnapshot snapshot = null;
+        if (relativeX >= 0 && relativeX < chunksX && relativeZ >= 0 && relativeZ < chunksZ) {
+            snapshot = snapshots[relativeX * chunksZ + relativeZ];
+        }
+
+        this.lastChunkX = chunkX;
+        this.lastChunkZ = chunkZ;
+        this.lastSnapshot = snapshot;
+        return snapshot;
+    }
+
+    @NotNull
+    static ChunkSnapshotBlockAccessor capture(@NotNull World world, int minX, int minZ, int maxX, int maxZ) {
+        int minChunkX = minX >> 4, minChunkZ = minZ >> 4;
+        int chunksX = (maxX >> 4) - minChunkX + 1, chunksZ = (maxZ >> 4) - minChunkZ + 1;
+        ChunkSnapshot[] snapshots = new ChunkSnapshot[chunksX * chunksZ];
+
+        for (int relativeX = 0; relativeX < chunksX; relativeX++) {
+            for (int relativeZ = 0; relativeZ < chunksZ; relativeZ++) {
+                int chunkX = minChunkX + relativeX, chunkZ = minChunkZ + relativeZ;
+
+                // Never load chunks just to capture them. Unloaded chunks are simply unreadable
+                if (!world.isChunkLoaded(chunkX, chunkZ)) {
+                    continue;
+                }
+
+                snapshots[relativeX * chunksZ + relativeZ] = world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false);
+            }
+        }
+
+        return new ChunkSnapshotBlockAccessor(world, minChunkX, minChunkZ, chunksX, chunksZ, snapshots);
+    }
+
+}
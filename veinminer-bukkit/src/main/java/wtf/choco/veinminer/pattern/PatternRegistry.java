@@ -10,6 +10,8 @@ import org.bukkit.NamespacedKey;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import wtf.choco.veinminer.util.PermissionNodes;
+
 /**
  * A registry to which {@link VeinMiningPattern VeinMiningPatterns} may be registered.
  */
@@ -24,6 +26,11 @@ public final class PatternRegistry {
      */
     public void register(@NotNull VeinMiningPattern pattern) {
         this.patterns.put(pattern.getKey(), pattern);
+
+        String permission = pattern.getPermission();
+        if (permission != null) {
+            PermissionNodes.indexOf(permission);
+        }
     }
 
     /**
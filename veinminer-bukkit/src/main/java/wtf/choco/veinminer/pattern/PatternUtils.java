@@ -1,10 +1,12 @@
 package wtf.choco.veinminer.pattern;
 
+import org.bukkit.Material;
 import org.bukkit.block.data.BlockData;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import wtf.choco.veinminer.block.BlockList;
+import wtf.choco.veinminer.block.BlockMatcher;
 import wtf.choco.veinminer.block.VeinMinerBlock;
 
 /**
@@ -26,6 +28,8 @@ public final class PatternUtils {
      * @return true if {@code current} either {@link VeinMinerBlock#matchesState(BlockData) matches state}
      * with the {@code block} or is {@link BlockList#containsState(BlockData) contained in the alias list},
      * false otherwise
+     *
+     * @see BlockMatcher
      */
     public static boolean typeMatches(@NotNull VeinMinerBlock block, @Nullable BlockList aliasList, @NotNull BlockData origin, @NotNull BlockData current) {
         if (!block.isTangible()) {
@@ -35,4 +39,31 @@ public final class PatternUtils {
         return block.matchesState(current) || (aliasList != null && aliasList.containsState(current));
     }
 
+    /**
+     * Check whether or not the block at the given coordinates is matched by the given {@link BlockMatcher}.
+     * The block's {@link BlockData} is only read if its type alone is not enough to decide, so most
+     * blocks are accepted or rejected by {@link BlockAccessor#getType(int, int, int) type}.
+     *
+     * @param matcher the matcher
+     * @param accessor the accessor from which to read the block
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     *
+     * @return true if the block is readable and matches, false otherwise
+     */
+    public static boolean matches(@NotNull BlockMatcher matcher, @NotNull BlockAccessor accessor, int x, int y, int z) {
+        Material type = accessor.getType(x, y, z);
+        if (type == null || !matcher.mayMatchType(type)) {
+            return false;
+        }
+
+        if (matcher.matchesType(type)) {
+            return true;
+        }
+
+        BlockData state = accessor.getBlockData(x, y, z);
+        return state != null && matcher.matches(state);
+    }
+
 }
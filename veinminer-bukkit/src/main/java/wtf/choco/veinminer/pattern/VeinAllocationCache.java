@@ -0,0 +1,649 @@
+package wtf.choco.veinminer.pattern;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.ApiStatus.Internal;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import wtf.choco.veinminer.block.BlockList;
+import wtf.choco.veinminer.block.BlockMatcher;
+import wtf.choco.veinminer.tool.VeinMinerToolCategory;
+import wtf.choco.veinminer.util.BlockPosition;
+import wtf.choco.veinminer.util.LongObjectHashMap;
+
+/**
+ * A bounded cache of recently allocated veins. The same vein is commonly allocated several times in
+ * quick succession (once for a client's preview, again when the vein is actually broken, and again
+ * for every other player looking at it), all of which can be served from a single allocation.
+ * <p>
+ * Cached veins are invalidated as soon as a block at any of their positions changes, but because not
+ * every change to the world fires an event, entries also expire after a short amount of time and
+ * anything that acts on a cached vein should {@link #get(Key, World, BlockMatcher) verify} the blocks
+ * it is acting upon.
+ * <p>
+ * Invalidations are by far the most frequent operation, and happen on every region thread at once, so
+ * cached veins are indexed per world and per chunk. Invalidating a block in a chunk without any cached
+ * veins never takes a lock, and invalidations in different chunks never contend with one another.
+ * <p>
+ * This class is thread safe.
+ * <p>
+ * <strong>NOTE:</strong> Not part of the public API. This class is intended for internal use only.
+ */
+@Internal
+public final class VeinAllocationCache {
+
+    private static final int DEFAULT_MAXIMUM_SIZE = 256;
+    private static final long DEFAULT_EXPIRY_MILLIS = 10_000;
+
+    // Must be a power of two
+    private static final int MODIFICATION_COUNTER_STRIPES = 1 << 12;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<UUID, Map<Long, ChunkIndex>> chunkIndexes = new ConcurrentHashMap<>();
+
+    /*
+     * Counts invalidations in the chunks hashing to each stripe so that a vein allocated from a snapshot
+     * can tell whether a block in the snapshot changed before the vein was cached. Chunks sharing a stripe
+     * can only cause a vein not to be cached, never a stale vein to be cached. Nothing is counted until the
+     * first stamp is taken, so servers that never allocate from snapshots don't pay for it.
+     */
+    private final AtomicIntegerArray modificationCounters = new AtomicIntegerArray(MODIFICATION_COUNTER_STRIPES);
+    private volatile boolean countingModifications = false;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private final int maximumSize;
+    private final long expiryNanos;
+
+    /**
+     * Construct a new {@link VeinAllocationCache}.
+     *
+     * @param maximumSize the maximum amount of veins to cache at once
+     * @param expiry the amount of time after which a cached vein expires
+     * @param unit the unit of {@code expiry}
+     */
+    public VeinAllocationCache(int maximumSize, long expiry, @NotNull TimeUnit unit) {
+        Preconditions.checkArgument(maximumSize > 0, "maximumSize must be > 0");
+        Preconditions.checkArgument(expiry > 0, "expiry must be > 0");
+        Preconditions.checkArgument(unit != null, "unit must not be null");
+
+        this.maximumSize = maximumSize;
+        this.expiryNanos = unit.toNanos(expiry);
+    }
+
+    /**
+     * Construct a new {@link VeinAllocationCache} with a default size and expiry.
+     */
+    public VeinAllocationCache() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the packed positions of the vein cached for the given key.
+     *
+     * @param key the key
+     *
+     * @return the {@link BlockPosition#pack() packed positions} of the cached vein, or null if no
+     * vein is cached. The returned array is shared and must not be modified
+     */
+    @Nullable
+    public long[] get(@NotNull Key key) {
+        Preconditions.checkArgument(key != null, "key must not be null");
+
+        Entry entry = getEntry(key);
+        if (entry == null) {
+            this.misses.increment();
+            return null;
+        }
+
+        this.hits.increment();
+        return entry.positions;
+    }
+
+    /**
+     * Get the packed positions of the vein cached for the given key, but only if every block in the
+     * vein is still matched by the given {@link BlockMatcher}. A cached vein that no longer matches,
+     * or that reaches into a chunk that is no longer loaded, is invalidated.
+     * <p>
+     * This method reads from the world and must be called from the thread that owns the region of the
+     * vein.
+     *
+     * @param key the key
+     * @param world the world in which the vein was allocated
+     * @param matcher the matcher for the origin of the vein
+     *
+     * @return the {@link BlockPosition#pack() packed positions} of the cached vein, or null if no
+     * valid vein is cached. The returned array is shared and must not be modified
+     */
+    @Nullable
+    public long[] get(@NotNull Key key, @NotNull World world, @NotNull BlockMatcher matcher) {
+        Preconditions.checkArgument(key != null, "key must not be null");
+        Preconditions.checkArgument(world != null, "world must not be null");
+        Preconditions.checkArgument(matcher != null, "matcher must not be null");
+
+        Entry entry = getEntry(key);
+        if (entry == null) {
+            this.misses.increment();
+            return null;
+        }
+
+        BlockAccessor accessor = BlockAccessor.world(world);
+        for (long position : entry.positions) {
+            int x = BlockPosition.unpackX(position), z = BlockPosition.unpackZ(position);
+
+            // Never load a chunk just to verify the vein, it can be allocated again from what is loaded now
+            if (!world.isChunkLoaded(x >> 4, z >> 4) || !PatternUtils.matches(matcher, accessor, x, BlockPosition.unpackY(position), z)) {
+                this.removeEntry(entry);
+                this.misses.increment();
+                return null;
+            }
+        }
+
+        this.hits.increment();
+        return entry.positions;
+    }
+
+    /**
+     * Take a {@link Stamp} of the given area, which must be done before the area is captured to
+     * allocate a vein off of the thread that owns it. The vein may then only be cached if no block in
+     * the area was invalidated in the meantime.
+     *
+     * @param world the world
+     * @param minX the minimum x coordinate of the area
+     * @param minZ the minimum z coordinate of the area
+     * @param maxX the maximum x coordinate of the area
+     * @param maxZ the maximum z coordinate of the area
+     *
+     * @return the stamp
+     *
+     * @see #put(Key, long[], Stamp)
+     */
+    @NotNull
+    public Stamp stamp(@NotNull World world, int minX, int minZ, int maxX, int maxZ) {
+        Preconditions.checkArgument(world != null, "world must not be null");
+
+        this.countingModifications = true;
+
+        UUID worldId = world.getUID();
+        int minChunkX = minX >> 4, minChunkZ = minZ >> 4, maxChunkX = maxX >> 4, maxChunkZ = maxZ >> 4;
+        int[] counters = new int[(maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1)];
+
+        int i = 0;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                counters[i++] = modificationCounters.get(stripe(worldId, chunkX, chunkZ));
+            }
+        }
+
+        return new Stamp(worldId, minChunkX, minChunkZ, maxChunkX, maxChunkZ, counters);
+    }
+
+    /**
+     * Cache the positions of a vein allocated for the given key, replacing any vein already cached
+     * for that key.
+     * <p>
+     * Veins that were {@link BlockAccessor#isClipped() clipped} while being allocated may be incomplete
+     * and must not be cached.
+     *
+     * @param key the key
+     * @param positions the {@link BlockPosition#pack() packed positions} of the vein. The array is
+     * retained by the cache and must not be modified afterwards
+     */
+    public void put(@NotNull Key key, long @NotNull [] positions) {
+        this.put(key, positions, null);
+    }
+
+    /**
+     * Cache the positions of a vein allocated for the given key from an area that was {@link #stamp(World,
+     * int, int, int, int) stamped} before it was captured, replacing any vein already cached for that key.
+     * The vein is not cached if a block in the area was invalidated since the stamp was taken.
+     * <p>
+     * Veins that were {@link BlockAccessor#isClipped() clipped} while being allocated may be incomplete
+     * and must not be cached.
+     *
+     * @param key the key
+     * @param positions the {@link BlockPosition#pack() packed positions} of the vein. The array is
+     * retained by the cache and must not be modified afterwards
+     * @param stamp the stamp taken before the area was captured, or null if the vein was allocated on
+     * the thread that owns it
+     *
+     * @return true if the vein was cached, false if the area changed since it was stamped
+     */
+    public boolean put(@NotNull Key key, long @NotNull [] positions, @Nullable Stamp stamp) {
+        Preconditions.checkArgument(key != null, "key must not be null");
+        Preconditions.checkArgument(positions != null, "positions must not be null");
+
+        Entry entry = new Entry(key, positions, System.nanoTime());
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            this.unindex(previous);
+        }
+
+        Map<Long, ChunkIndex> chunks = chunkIndexes.computeIfAbsent(key.worldId(), ignore -> new ConcurrentHashMap<>());
+        for (long position : positions) {
+            this.index(chunks, position, entry);
+        }
+
+        /*
+         * The stamp is only checked once the vein is indexed. An invalidation counts the change before looking
+         * for veins to invalidate, so it either finds this vein in the index or is seen by the stamp.
+         */
+        if (stamp != null && !isCurrent(stamp)) {
+            this.entries.remove(key, entry);
+        }
+
+        // The vein may have been replaced or invalidated while it was being indexed, leaving some of its positions behind
+        if (entries.get(key) != entry) {
+            this.unindex(entry);
+            return false;
+        }
+
+        this.evict();
+        return true;
+    }
+
+    /**
+     * Invalidate all cached veins that include the given position.
+     *
+     * @param world the world
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     */
+    public void invalidate(@NotNull World world, int x, int y, int z) {
+        this.invalidate(world.getUID(), x, y, z, x, y, z);
+    }
+
+    /**
+     * Invalidate all cached veins that include the given {@link Block}.
+     *
+     * @param block the block
+     */
+    public void invalidate(@NotNull Block block) {
+        this.invalidate(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Invalidate all cached veins that include the given position or any of the 26 positions surrounding
+     * it. A block that becomes part of a vein doesn't change any position already in that vein, but it
+     * does change every vein it is adjacent to.
+     *
+     * @param world the world
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     */
+    public void invalidateSurrounding(@NotNull World world, int x, int y, int z) {
+        this.invalidate(world.getUID(), x - 1, y - 1, z - 1, x + 1, y + 1, z + 1);
+    }
+
+    /**
+     * Invalidate all cached veins that include the given {@link Block} or any of the 26 blocks
+     * surrounding it.
+     *
+     * @param block the block
+     *
+     * @see #invalidateSurrounding(World, int, int, int)
+     */
+    public void invalidateSurrounding(@NotNull Block block) {
+        this.invalidateSurrounding(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Invalidate the vein cached for the given key, if any.
+     *
+     * @param key the key
+     */
+    public void invalidate(@NotNull Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            this.removeEntry(entry);
+        }
+    }
+
+    /**
+     * Invalidate all cached veins.
+     */
+    public void clear() {
+        this.entries.values().forEach(this::removeEntry);
+    }
+
+    /**
+     * Get the amount of veins currently cached.
+     *
+     * @return the amount of cached veins
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the amount of lookups that were served from this cache.
+     *
+     * @return the hit count
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the amount of lookups that could not be served from this cache.
+     *
+     * @return the miss count
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Nullable
+    private Entry getEntry(Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.createdAt > expiryNanos) {
+            this.removeEntry(entry);
+            return null;
+        }
+
+        return entry;
+    }
+
+    // Invalidates every vein including any position within the given bounds, one chunk at a time
+    private void invalidate(UUID worldId, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        Map<Long, ChunkIndex> chunks = chunkIndexes.get(worldId);
+        boolean countModifications = countingModifications;
+        if (chunks == null && !countModifications) {
+            return;
+        }
+
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                // Must be counted before looking for veins, see put()
+                if (countModifications) {
+                    this.modificationCounters.incrementAndGet(stripe(worldId, chunkX, chunkZ));
+                }
+
+                ChunkIndex chunk = (chunks != null) ? chunks.get(chunkKey(chunkX, chunkZ)) : null;
+                if (chunk == null) {
+                    continue;
+                }
+
+                List<Entry> invalidated = chunk.collect(
+                    Math.max(minX, chunkX << 4), minY, Math.max(minZ, chunkZ << 4),
+                    Math.min(maxX, (chunkX << 4) + 15), maxY, Math.min(maxZ, (chunkZ << 4) + 15)
+                );
+
+                if (invalidated != null) {
+                    invalidated.forEach(this::removeEntry);
+                }
+            }
+        }
+    }
+
+    private boolean isCurrent(Stamp stamp) {
+        int i = 0;
+        for (int chunkX = stamp.minChunkX; chunkX <= stamp.maxChunkX; chunkX++) {
+            for (int chunkZ = stamp.minChunkZ; chunkZ <= stamp.maxChunkZ; chunkZ++) {
+                if (modificationCounters.get(stripe(stamp.worldId, chunkX, chunkZ)) != stamp.counters[i++]) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private void index(Map<Long, ChunkIndex> chunks, long position, Entry entry) {
+        long chunkKey = chunkKey(BlockPosition.unpackX(position) >> 4, BlockPosition.unpackZ(position) >> 4);
+
+        while (true) {
+            ChunkIndex chunk = chunks.computeIfAbsent(chunkKey, ignore -> new ChunkIndex());
+            if (chunk.add(position, entry)) {
+                return;
+            }
+
+            // Retired once emptied, but not yet removed by whoever emptied it. A new index takes its place
+            chunks.remove(chunkKey, chunk);
+        }
+    }
+
+    private void unindex(Entry entry) {
+        Map<Long, ChunkIndex> chunks = chunkIndexes.get(entry.key.worldId());
+        if (chunks == null) {
+            return;
+        }
+
+        for (long position : entry.positions) {
+            long chunkKey = chunkKey(BlockPosition.unpackX(position) >> 4, BlockPosition.unpackZ(position) >> 4);
+            ChunkIndex chunk = chunks.get(chunkKey);
+            if (chunk != null && chunk.remove(position, entry)) {
+                chunks.remove(chunkKey, chunk);
+            }
+        }
+    }
+
+    private void removeEntry(Entry entry) {
+        if (entries.remove(entry.key, entry)) {
+            this.unindex(entry);
+        }
+    }
+
+    // Evicts the oldest veins until the cache is back within its maximum size
+    private void evict() {
+        while (entries.size() > maximumSize) {
+            Entry eldest = null;
+            for (Entry entry : entries.values()) {
+                if (eldest == null || entry.createdAt < eldest.createdAt) {
+                    eldest = entry;
+                }
+            }
+
+            if (eldest == null) {
+                return;
+            }
+
+            this.removeEntry(eldest);
+        }
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static int stripe(UUID worldId, int chunkX, int chunkZ) {
+        long hash = (chunkKey(chunkX, chunkZ) ^ worldId.getLeastSignificantBits()) * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> (Long.SIZE - Integer.numberOfTrailingZeros(MODIFICATION_COUNTER_STRIPES)));
+    }
+
+    /**
+     * Convert the given list of {@link Block Blocks} to an array of packed positions.
+     *
+     * @param blocks the blocks to convert
+     *
+     * @return the {@link BlockPosition#pack() packed positions}
+     */
+    public static long @NotNull [] pack(@NotNull List<Block> blocks) {
+        long[] positions = new long[blocks.size()];
+        for (int i = 0; i < positions.length; i++) {
+            Block block = blocks.get(i);
+            positions[i] = BlockPosition.pack(block.getX(), block.getY(), block.getZ());
+        }
+
+        return positions;
+    }
+
+    /**
+     * A key identifying everything that determines the result of a vein allocation.
+     *
+     * @param worldId the id of the world in which the vein was allocated
+     * @param origin the {@link BlockPosition#pack() packed position} of the origin block
+     * @param originState the state of the origin block
+     * @param pattern the key of the pattern that allocated the vein
+     * @param face the face of the origin block that was targeted. Only some patterns (such as tunnels)
+     * depend on it, but it is always part of the key
+     * @param category the id of the tool category used to allocate the vein
+     * @param aliases the aliases of the origin block, or null if none
+     */
+    public record Key(@NotNull UUID worldId, long origin, @NotNull BlockData originState, @NotNull NamespacedKey pattern, @NotNull BlockFace face, @NotNull String category, @Nullable BlockList aliases) {
+
+        /**
+         * Create a new {@link Key} for an allocation.
+         *
+         * @param origin the origin block
+         * @param originState the state of the origin block
+         * @param face the face of the origin block that was targeted
+         * @param pattern the pattern
+         * @param category the tool category
+         * @param aliases the aliases of the origin block, or null if none
+         *
+         * @return the key
+         */
+        @NotNull
+        public static Key of(@NotNull Block origin, @NotNull BlockData originState, @NotNull BlockFace face, @NotNull VeinMiningPattern pattern, @NotNull VeinMinerToolCategory category, @Nullable BlockList aliases) {
+            long packedOrigin = BlockPosition.pack(origin.getX(), origin.getY(), origin.getZ());
+            return new Key(origin.getWorld().getUID(), packedOrigin, originState, pattern.getKey(), face, category.getId(), aliases);
+        }
+
+    }
+
+    /**
+     * A stamp of the invalidations in an area at the time it was captured.
+     *
+     * @see VeinAllocationCache#stamp(World, int, int, int, int)
+     */
+    public static final class Stamp {
+
+        private final UUID worldId;
+        private final int minChunkX, minChunkZ, maxChunkX, maxChunkZ;
+        private final int[] counters;
+
+        private Stamp(UUID worldId, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ, int[] counters) {
+            this.worldId = worldId;
+            this.minChunkX = minChunkX;
+            this.minChunkZ = minChunkZ;
+            this.maxChunkX = maxChunkX;
+            this.maxChunkZ = maxChunkZ;
+            this.counters = counters;
+        }
+
+    }
+
+    // Entries are compared by identity, a vein cached again for the same key is a different entry
+    private static final class Entry {
+
+        private final Key key;
+        private final long[] positions;
+        private final long createdAt;
+
+        private Entry(Key key, long[] positions, long createdAt) {
+            this.key = key;
+            this.positions = positions;
+            this.createdAt = createdAt;
+        }
+
+    }
+
+    // The cached veins including each position of a single chunk. Each chunk is guarded by its own lock
+    private static final class ChunkIndex {
+
+        private final LongObjectHashMap<Entry[]> entries = new LongObjectHashMap<>();
+        private boolean retired = false;
+
+        // Returns false if this index was retired and the entry must be added to its replacement instead
+        private synchronized boolean add(long position, Entry entry) {
+            if (retired) {
+                return false;
+            }
+
+            Entry[] existing = entries.get(position);
+            if (existing == null) {
+                this.entries.put(position, new Entry[] {entry});
+                return true;
+            }
+
+            Entry[] updated = Arrays.copyOf(existing, existing.length + 1);
+            updated[existing.length] = entry;
+            this.entries.put(position, updated);
+            return true;
+        }
+
+        // Returns true if this index was emptied, and has been retired, as a result
+        private synchronized boolean remove(long position, Entry entry) {
+            Entry[] existing = entries.get(position);
+            if (existing == null) {
+                return false;
+            }
+
+            int index = -1;
+            for (int i = 0; i < existing.length; i++) {
+                if (existing[i] == entry) {
+                    index = i;
+                    break;
+                }
+            }
+
+            if (index == -1) {
+                return false;
+            }
+
+            if (existing.length == 1) {
+                this.entries.remove(position);
+            } else {
+                Entry[] updated = new Entry[existing.length - 1];
+                System.arraycopy(existing, 0, updated, 0, index);
+                System.arraycopy(existing, index + 1, updated, index, updated.length - index);
+                this.entries.put(position, updated);
+            }
+
+            if (entries.isEmpty()) {
+                this.retired = true;
+                return true;
+            }
+
+            return false;
+        }
+
+        // Returns the entries including any position within the given bounds, or null if there are none
+        @Nullable
+        private synchronized List<Entry> collect(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            List<Entry> collected = null;
+
+            for (int x = minX; x <= maxX; x++) {
+                for (int y = minY; y <= maxY; y++) {
+                    for (int z = minZ; z <= maxZ; z++) {
+                        Entry[] existing = entries.get(BlockPosition.pack(x, y, z));
+                        if (existing == null) {
+                            continue;
+                        }
+
+                        if (collected == null) {
+                            collected = new ArrayList<>(existing.length);
+                        }
+
+                        Collections.addAll(collected, existing);
+                    }
+                }
+            }
+
+            return collected;
+        }
+
+    }
+
+}
@@ -1,5 +1,7 @@
 package wtf.choco.veinminer.pattern;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import org.bukkit.NamespacedKey;
@@ -44,6 +46,65 @@ public interface VeinMiningPattern {
     @NotNull
     public List<Block> allocateBlocks(@NotNull Block origin, @NotNull BlockFace destroyedFace, @NotNull VeinMinerBlock block, @NotNull VeinMiningConfiguration config, @Nullable BlockList aliasList);
 
+    /**
+     * Allocate a {@link List} of {@link Block Blocks} that should be destroyed, reading block states
+     * from the given {@link BlockAccessor} rather than from the world directly. The returned List of
+     * blocks will be broken in the order that they are inserted.
+     * <p>
+     * When given a {@link BlockAccessor#snapshot(org.bukkit.World, int, int, int) snapshot accessor},
+     * patterns implementing this method may be safely invoked off of the main thread.
+     *
+     * @param accessor the accessor from which to read block states
+     * @param origin the block where vein miner was initiated
+     * @param destroyedFace the block face that was destroyed
+     * @param block the {@link VeinMinerBlock} that was broken at the origin
+     * @param config the configuration applicable for this vein mine
+     * @param aliasList a {@link BlockList} of all blocks that should also be considered. May be empty
+     * or null
+     *
+     * @return the allocated blocks to break
+     *
+     * @apiNote mutability of the returned List cannot be guaranteed. Pattern implementations may or
+     * may not return immutable lists, therefore it's best to assume that it will be immutable
+     *
+     * @implSpec the default implementation collects every block returned by
+     * {@link #iterateBlocks(BlockAccessor, Block, BlockFace, VeinMinerBlock, VeinMiningConfiguration, BlockList)}
+     */
+    @NotNull
+    public default List<Block> allocateBlocks(@NotNull BlockAccessor accessor, @NotNull Block origin, @NotNull BlockFace destroyedFace, @NotNull VeinMinerBlock block, @NotNull VeinMiningConfiguration config, @Nullable BlockList aliasList) {
+        List<Block> blocks = new ArrayList<>();
+        iterateBlocks(accessor, origin, destroyedFace, block, config, aliasList).forEachRemaining(blocks::add);
+        return blocks;
+    }
+
+    /**
+     * Lazily allocate the {@link Block Blocks} that should be destroyed, in the same order in which
+     * {@link #allocateBlocks(BlockAccessor, Block, BlockFace, VeinMinerBlock, VeinMiningConfiguration, BlockList)}
+     * would allocate them. Blocks are discovered one at a time as the returned {@link Iterator} is
+     * advanced, so no work is done for blocks that are never requested.
+     * <p>
+     * Patterns only read block states that they have not yet returned, so blocks returned by the
+     * iterator may be broken before the iterator is advanced again. The iterator must not be shared
+     * between threads and should be advanced on the same thread that the accessor may be read from.
+     *
+     * @param accessor the accessor from which to read block states
+     * @param origin the block where vein miner was initiated
+     * @param destroyedFace the block face that was destroyed
+     * @param block the {@link VeinMinerBlock} that was broken at the origin
+     * @param config the configuration applicable for this vein mine
+     * @param aliasList a {@link BlockList} of all blocks that should also be considered. May be empty
+     * or null
+     *
+     * @return an iterator over the allocated blocks to break
+     *
+     * @implSpec the default implementation is not lazy. It ignores the accessor and iterates over the
+     * blocks eagerly allocated by {@link #allocateBlocks(Block, BlockFace, VeinMinerBlock, VeinMiningConfiguration, BlockList)}
+     */
+    @NotNull
+    public default Iterator<Block> iterateBlocks(@NotNull BlockAccessor accessor, @NotNull Block origin, @NotNull BlockFace destroyedFace, @NotNull VeinMinerBlock block, @NotNull VeinMiningConfiguration config, @Nullable BlockList aliasList) {
+        return allocateBlocks(origin, destroyedFace, block, config, aliasList).iterator();
+    }
+
     /**
      * Allocate a {@link List} of {@link Block Blocks} that should be destroyed. The returned List of
      * blocks will be broken in the order that they are inserted.
@@ -63,6 +124,18 @@ public interface VeinMiningPattern {
         return allocateBlocks(origin, destroyedFace, block, config, null);
     }
 
+    /**
+     * Check whether or not this pattern reads block states exclusively through the {@link BlockAccessor}
+     * given to {@link #allocateBlocks(BlockAccessor, Block, BlockFace, VeinMinerBlock, VeinMiningConfiguration, BlockList)}
+     * and holds no state that is unsafe to share between threads. If true, VeinMiner may allocate
+     * blocks using this pattern off of the main thread (for client previews, for instance).
+     *
+     * @return true if this pattern may allocate blocks asynchronously, false otherwise
+     */
+    public default boolean supportsAsyncAllocation() {
+        return false;
+    }
+
     /**
      * Get the permission node required to use this pattern.
      *
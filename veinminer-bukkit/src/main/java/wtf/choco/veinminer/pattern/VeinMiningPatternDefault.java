@@ -1,9 +1,14 @@
 package wtf.choco.veinminer.pattern;
 
-import java.util.ArrayList;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import org.bukkit.NamespacedKey;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.block.data.BlockData;
@@ -12,8 +17,12 @@ import org.jetbrains.annotations.Nullable;
 
 import wtf.choco.veinminer.VeinMinerPlugin;
 import wtf.choco.veinminer.block.BlockList;
+import wtf.choco.veinminer.block.BlockMatcher;
 import wtf.choco.veinminer.block.VeinMinerBlock;
 import wtf.choco.veinminer.config.VeinMiningConfiguration;
+import wtf.choco.veinminer.util.BlockPosition;
+import wtf.choco.veinminer.util.LongPriorityQueue;
+import wtf.choco.veinminer.util.LongRingBuffer;
 
 /**
  * The default {@link VeinMiningPattern} that mines as many blocks in an arbitrary pattern
@@ -24,7 +33,7 @@ public final class VeinMiningPatternDefault implements VeinMiningPattern {
     private static final VeinMiningPattern INSTANCE = new VeinMiningPatternDefault();
     private static final NamespacedKey KEY = VeinMinerPlugin.key("default");
 
-    private final List<Block> buffer = new ArrayList<>(32), recent = new ArrayList<>(32);
+    private volatile FrontierStrategy frontierStrategy = FrontierStrategy.BREADTH_FIRST;
 
     private VeinMiningPatternDefault() { }
 
@@ -37,59 +46,28 @@ public final class VeinMiningPatternDefault implements VeinMiningPattern {
     @NotNull
     @Override
     public List<Block> allocateBlocks(@NotNull Block origin, @NotNull BlockFace destroyedFace, @NotNull VeinMinerBlock block, @NotNull VeinMiningConfiguration config, @Nullable BlockList aliasList) {
-        List<Block> blocks = new ArrayList<>();
-
-        this.recent.add(origin); // For first iteration
+        return allocateBlocks(BlockAccessor.world(origin.getWorld()), origin, destroyedFace, block, config, aliasList);
+    }
 
+    @NotNull
+    @Override
+    public Iterator<Block> iterateBlocks(@NotNull BlockAccessor accessor, @NotNull Block origin, @NotNull BlockFace destroyedFace, @NotNull VeinMinerBlock block, @NotNull VeinMiningConfiguration config, @Nullable BlockList aliasList) {
         int maxVeinSize = config.getMaxVeinSize();
-        BlockData originBlockData = origin.getBlockData();
-
-        // Such loops, much wow! I promise, this is as efficient as it can be
-        while (blocks.size() < maxVeinSize) {
-            recentSearch:
-            for (Block current : recent) {
-                for (int x = -1; x <= 1; x++) {
-                    for (int y = -1; y <= 1; y++) {
-                        for (int z = -1; z <= 1; z++) {
-                            // Ignore self
-                            if (x == 0 && y == 0 && z == 0) {
-                                continue;
-                            }
-
-                            Block relative = current.getRelative(x, y, z);
-                            if (blocks.contains(relative) || buffer.contains(relative)) {
-                                continue;
-                            }
-
-                            if (!PatternUtils.typeMatches(block, aliasList, originBlockData, relative.getBlockData())) {
-                                continue;
-                            }
-
-                            if (blocks.size() + buffer.size() >= maxVeinSize) {
-                                break recentSearch;
-                            }
-
-                            this.buffer.add(relative);
-                        }
-                    }
-                }
-            }
-
-            // No more blocks to allocate :D
-            if (buffer.isEmpty()) {
-                break;
-            }
-
-            this.recent.clear();
-            this.recent.addAll(buffer);
-            blocks.addAll(buffer);
-
-            this.buffer.clear();
+        BlockData originBlockData = accessor.getBlockData(origin.getX(), origin.getY(), origin.getZ());
+        if (maxVeinSize <= 0 || originBlockData == null) {
+            return Collections.emptyIterator();
         }
 
-        this.recent.clear();
+        BlockMatcher matcher = BlockMatcher.compile(block, aliasList, originBlockData);
+        return switch (frontierStrategy) {
+            case BREADTH_FIRST -> new BreadthFirstIterator(accessor, origin, matcher, maxVeinSize);
+            case CHUNK_LOCALITY -> new ChunkLocalityIterator(accessor, origin, matcher, maxVeinSize);
+        };
+    }
 
-        return blocks;
+    @Override
+    public boolean supportsAsyncAllocation() {
+        return true;
     }
 
     @Nullable
@@ -98,6 +76,26 @@ public final class VeinMiningPatternDefault implements VeinMiningPattern {
         return "veinminer.pattern.default";
     }
 
+    /**
+     * Set the {@link FrontierStrategy} used to decide the order in which this pattern grows a vein.
+     *
+     * @param frontierStrategy the frontier strategy
+     */
+    public void setFrontierStrategy(@NotNull FrontierStrategy frontierStrategy) {
+        Preconditions.checkArgument(frontierStrategy != null, "frontierStrategy must not be null");
+        this.frontierStrategy = frontierStrategy;
+    }
+
+    /**
+     * Get the {@link FrontierStrategy} used to decide the order in which this pattern grows a vein.
+     *
+     * @return the frontier strategy
+     */
+    @NotNull
+    public FrontierStrategy getFrontierStrategy() {
+        return frontierStrategy;
+    }
+
     /**
      * Get the singleton instance of {@link VeinMiningPatternDefault}.
      *
@@ -108,4 +106,211 @@ public final class VeinMiningPatternDefault implements VeinMiningPattern {
         return INSTANCE;
     }
 
+    /**
+     * Represents the order in which a {@link VeinMiningPatternDefault} grows a vein from its origin.
+     */
+    public static enum FrontierStrategy {
+
+        /**
+         * Grow the vein breadth-first, layer by layer outwards from the origin. This is the default.
+         */
+        BREADTH_FIRST,
+        /**
+         * Grow the vein one chunk section at a time, starting with the sections nearest the origin,
+         * and within a section starting with the blocks nearest the origin. Veins that are cut short by
+         * the maximum vein size are more compact, and reads are more likely to hit the same chunk section
+         * as the read before them.
+         */
+        CHUNK_LOCALITY;
+
+    }
+
+    /*
+     * Positions are packed into longs (see BlockPosition#pack()) so that the search itself never
+     * has to create Block instances or hash boxed objects. Every probed position is marked as
+     * visited, matching or not, so no position is ever read more than once. This is also what
+     * allows returned blocks to be broken while the search is still underway.
+     *
+     * All scratch state is borrowed from the current thread's arena and returned once the
+     * search is exhausted. This pattern is a singleton shared by every region thread and must
+     * never hold allocation state in its own fields.
+     */
+    private abstract static class VeinIterator extends AbstractIterator<Block> {
+
+        protected final BlockAccessor accessor;
+        protected final World world;
+        protected final BlockMatcher matcher;
+        protected final int maxVeinSize;
+
+        protected AllocationArena arena = AllocationArena.borrow();
+
+        private VeinIterator(BlockAccessor accessor, BlockMatcher matcher, int maxVeinSize) {
+            this.accessor = accessor;
+            this.world = accessor.getWorld();
+            this.matcher = matcher;
+            this.maxVeinSize = maxVeinSize;
+        }
+
+        // Marks the position as visited and checks whether it belongs to the vein. Positions already visited never match
+        protected final boolean visit(int x, int y, int z, long position) {
+            return arena.visited.add(position) && PatternUtils.matches(matcher, accessor, x, y, z);
+        }
+
+        protected final Block toBlock(long position) {
+            return world.getBlockAt(BlockPosition.unpackX(position), BlockPosition.unpackY(position), BlockPosition.unpackZ(position));
+        }
+
+        protected final Block finish() {
+            this.arena.close();
+            this.arena = null;
+            return endOfData();
+        }
+
+    }
+
+    /*
+     * The origin is deliberately not marked as visited up front. It is rediscovered by its
+     * neighbours like any other block which keeps the allocated order the same as it has
+     * always been (breadth-first, origin in the second layer).
+     */
+    private static final class BreadthFirstIterator extends VeinIterator {
+
+        private int discovered = 0;
+
+        private BreadthFirstIterator(BlockAccessor accessor, Block origin, BlockMatcher matcher, int maxVeinSize) {
+            super(accessor, matcher, maxVeinSize);
+            this.arena.frontier.enqueue(BlockPosition.pack(origin.getX(), origin.getY(), origin.getZ()));
+        }
+
+        @Override
+        protected Block computeNext() {
+            // Blocks discovered by the last expansion are returned before anything else is searched
+            LongRingBuffer allocated = arena.allocated;
+            while (allocated.isEmpty()) {
+                if (discovered >= maxVeinSize || arena.frontier.isEmpty()) {
+                    return finish();
+                }
+
+                this.expand(arena.frontier.dequeue());
+            }
+
+            return toBlock(allocated.dequeue());
+        }
+
+        private void expand(long current) {
+            int currentX = BlockPosition.unpackX(current), currentY = BlockPosition.unpackY(current), currentZ = BlockPosition.unpackZ(current);
+
+            for (int x = -1; x <= 1; x++) {
+                for (int y = -1; y <= 1; y++) {
+                    for (int z = -1; z <= 1; z++) {
+                        // Ignore self
+                        if (x == 0 && y == 0 && z == 0) {
+                            continue;
+                        }
+
+                        int relativeX = currentX + x, relativeY = currentY + y, relativeZ = currentZ + z;
+                        long relative = BlockPosition.pack(relativeX, relativeY, relativeZ);
+                        if (!visit(relativeX, relativeY, relativeZ, relative)) {
+                            continue;
+                        }
+
+                        this.arena.allocated.enqueue(relative);
+                        if (++discovered >= maxVeinSize) {
+                            return;
+                        }
+
+                        this.arena.frontier.enqueue(relative);
+                    }
+                }
+            }
+        }
+
+    }
+
+    /*
+     * Matching blocks are queued as candidates, prioritized first by how far their chunk section is from the
+     * origin's, then by section (so that a section is finished before moving on to the next one at the same
+     * distance), then by their distance to the origin. A block is only allocated (and its neighbours probed)
+     * once it is the best remaining candidate, so a vein cut short by the maximum vein size is the compact
+     * blob nearest the origin rather than whatever a breadth-first search happened to reach first.
+     *
+     * Unlike the breadth-first search, the origin is allocated first.
+     */
+    private static final class ChunkLocalityIterator extends VeinIterator {
+
+        private static final long MAX_SECTION_DISTANCE = (1L << 15) - 1;
+        private static final long MAX_DISTANCE_SQUARED = (1L << 24) - 1;
+
+        private final int originX, originY, originZ;
+        private int allocated = 0;
+
+        private ChunkLocalityIterator(BlockAccessor accessor, Block origin, BlockMatcher matcher, int maxVeinSize) {
+            super(accessor, matcher, maxVeinSize);
+
+            this.originX = origin.getX();
+            this.originY = origin.getY();
+            this.originZ = origin.getZ();
+
+            long originPosition = BlockPosition.pack(originX, originY, originZ);
+            this.arena.visited.add(originPosition);
+            this.arena.candidates.enqueue(originPosition, priority(originX, originY, originZ));
+        }
+
+        @Override
+        protected Block computeNext() {
+            LongPriorityQueue candidates = arena.candidates;
+            if (allocated >= maxVeinSize || candidates.isEmpty()) {
+                return finish();
+            }
+
+            long current = candidates.dequeue();
+            this.allocated++;
+
+            // The last block doesn't need its neighbours probed, nothing more will be allocated after it
+            if (allocated < maxVeinSize) {
+                this.expand(current);
+            }
+
+            return toBlock(current);
+        }
+
+        private void expand(long current) {
+            int currentX = BlockPosition.unpackX(current), currentY = BlockPosition.unpackY(current), currentZ = BlockPosition.unpackZ(current);
+
+            for (int x = -1; x <= 1; x++) {
+                for (int y = -1; y <= 1; y++) {
+                    for (int z = -1; z <= 1; z++) {
+                        // Ignore self
+                        if (x == 0 && y == 0 && z == 0) {
+                            continue;
+                        }
+
+                        int relativeX = currentX + x, relativeY = currentY + y, relativeZ = currentZ + z;
+                        long relative = BlockPosition.pack(relativeX, relativeY, relativeZ);
+                        if (visit(relativeX, relativeY, relativeZ, relative)) {
+                            this.arena.candidates.enqueue(relative, priority(relativeX, relativeY, relativeZ));
+                        }
+                    }
+                }
+            }
+        }
+
+        // [section distance: 15 bits][section: 3 x 8 bits][distance squared: 24 bits]. Overflowing components are clamped
+        private long priority(int x, int y, int z) {
+            int sectionX = (x >> 4) - (originX >> 4), sectionY = (y >> 4) - (originY >> 4), sectionZ = (z >> 4) - (originZ >> 4);
+            long sectionDistance = Math.min(Math.max(Math.abs(sectionX), Math.max(Math.abs(sectionY), Math.abs(sectionZ))), MAX_SECTION_DISTANCE);
+            long section = (sectionComponent(sectionX) << 16) | (sectionComponent(sectionY) << 8) | sectionComponent(sectionZ);
+
+            long offsetX = x - originX, offsetY = y - originY, offsetZ = z - originZ;
+            long distanceSquared = Math.min((offsetX * offsetX) + (offsetY * offsetY) + (offsetZ * offsetZ), MAX_DISTANCE_SQUARED);
+
+            return (sectionDistance << 48) | (section << 24) | distanceSquared;
+        }
+
+        private static long sectionComponent(int relativeSection) {
+            return Math.clamp(relativeSection + 128, 0, 255);
+        }
+
+    }
+
 }
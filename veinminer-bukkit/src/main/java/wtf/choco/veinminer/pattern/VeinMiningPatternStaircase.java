@@ -1,9 +1,13 @@
 package wtf.choco.veinminer.pattern;
 
-import java.util.ArrayList;
+import com.google.common.collect.AbstractIterator;
+
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import org.bukkit.NamespacedKey;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.block.data.BlockData;
@@ -12,8 +16,11 @@ import org.jetbrains.annotations.Nullable;
 
 import wtf.choco.veinminer.VeinMinerPlugin;
 import wtf.choco.veinminer.block.BlockList;
+import wtf.choco.veinminer.block.BlockMatcher;
 import wtf.choco.veinminer.block.VeinMinerBlock;
 import wtf.choco.veinminer.config.VeinMiningConfiguration;
+import wtf.choco.veinminer.util.BlockPosition;
+import wtf.choco.veinminer.util.LongRingBuffer;
 
 /**
  * A staircase {@link VeinMiningPattern} that digs a 1x3 column either upwards or downwards.
@@ -46,23 +53,29 @@ public final class VeinMiningPatternStaircase implements VeinMiningPattern {
     @NotNull
     @Override
     public List<Block> allocateBlocks(@NotNull Block origin, @NotNull BlockFace destroyedFace, @NotNull VeinMinerBlock block, @NotNull VeinMiningConfiguration config, @Nullable BlockList aliasList) {
-        List<Block> positions = new ArrayList<>();
-        BlockFace staircaseDirection = destroyedFace.getOppositeFace();
+        return allocateBlocks(BlockAccessor.world(origin.getWorld()), origin, destroyedFace, block, config, aliasList);
+    }
 
+    @NotNull
+    @Override
+    public Iterator<Block> iterateBlocks(@NotNull BlockAccessor accessor, @NotNull Block origin, @NotNull BlockFace destroyedFace, @NotNull VeinMinerBlock block, @NotNull VeinMiningConfiguration config, @Nullable BlockList aliasList) {
         // This can only be used on walls
         if (destroyedFace == BlockFace.UP || destroyedFace == BlockFace.DOWN) {
-            return positions;
+            return Collections.emptyIterator();
         }
 
-        Block currentPosition = origin;
-        int maxVeinSize = config.getMaxVeinSize();
-        BlockData originBlockData = origin.getBlockData();
-
-        while (calculateStairSegment(positions, originBlockData, currentPosition, block, aliasList, maxVeinSize)) {
-            currentPosition = currentPosition.getRelative(staircaseDirection.getModX(), direction.getModY(), staircaseDirection.getModZ());
+        BlockData originBlockData = accessor.getBlockData(origin.getX(), origin.getY(), origin.getZ());
+        if (originBlockData == null) {
+            return Collections.emptyIterator();
         }
 
-        return positions;
+        BlockMatcher matcher = BlockMatcher.compile(block, aliasList, originBlockData);
+        return new StaircaseIterator(accessor, origin, destroyedFace.getOppositeFace(), matcher, config.getMaxVeinSize());
+    }
+
+    @Override
+    public boolean supportsAsyncAllocation() {
+        return true;
     }
 
     @Nullable
@@ -71,27 +84,61 @@ public final class VeinMiningPatternStaircase implements VeinMiningPattern {
         return permission;
     }
 
-    private boolean calculateStairSegment(List<Block> positions, BlockData originBlockData, Block current, VeinMinerBlock block, BlockList aliasList, int maxVeinSize) {
-        boolean changed = false, interrupted = false;
+    // Allocates one segment of the staircase at a time, only moving on to the next step once the last segment has been consumed
+    private final class StaircaseIterator extends AbstractIterator<Block> {
+
+        private final BlockAccessor accessor;
+        private final World world;
+        private final BlockFace staircaseDirection;
+        private final BlockMatcher matcher;
+        private final int maxVeinSize;
+
+        private final LongRingBuffer segment = new LongRingBuffer(3);
+        private int x, y, z;
+        private int allocated = 0;
+
+        private StaircaseIterator(BlockAccessor accessor, Block origin, BlockFace staircaseDirection, BlockMatcher matcher, int maxVeinSize) {
+            this.accessor = accessor;
+            this.world = accessor.getWorld();
+            this.staircaseDirection = staircaseDirection;
+            this.matcher = matcher;
+            this.maxVeinSize = maxVeinSize;
+
+            this.x = origin.getX();
+            this.y = origin.getY();
+            this.z = origin.getZ();
+        }
 
-        for (int y = -1; y <= 1; y++) {
-            Block relative = current.getRelative(0, y, 0);
-            if (positions.contains(relative) || !PatternUtils.typeMatches(block, aliasList, originBlockData, relative.getBlockData())) {
-                continue;
+        @Override
+        protected Block computeNext() {
+            // The staircase ends at the first segment in which nothing could be allocated
+            if (segment.isEmpty() && (allocated >= maxVeinSize || !calculateStairSegment())) {
+                return endOfData();
             }
 
-            boolean success = positions.add(relative);
-            changed |= success;
-            if (!success) {
-                interrupted = true;
-            }
+            long position = segment.dequeue();
+            return world.getBlockAt(BlockPosition.unpackX(position), BlockPosition.unpackY(position), BlockPosition.unpackZ(position));
+        }
 
-            if (positions.size() >= maxVeinSize) {
-                return false;
+        private boolean calculateStairSegment() {
+            // Each segment steps horizontally away from the last, so segments never overlap one another
+            for (int relativeY = y - 1; relativeY <= y + 1; relativeY++) {
+                if (!PatternUtils.matches(matcher, accessor, x, relativeY, z)) {
+                    continue;
+                }
+
+                this.segment.enqueue(BlockPosition.pack(x, relativeY, z));
+                if (++allocated >= maxVeinSize) {
+                    return true;
+                }
             }
+
+            this.x += staircaseDirection.getModX();
+            this.y += direction.getModY();
+            this.z += staircaseDirection.getModZ();
+            return !segment.isEmpty();
         }
 
-        return changed && !interrupted;
     }
 
     /**
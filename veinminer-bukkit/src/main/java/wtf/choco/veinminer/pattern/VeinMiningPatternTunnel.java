@@ -1,9 +1,13 @@
 package wtf.choco.veinminer.pattern;
 
-import java.util.ArrayList;
+import com.google.common.collect.AbstractIterator;
+
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import org.bukkit.NamespacedKey;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.block.data.BlockData;
@@ -12,8 +16,11 @@ import org.jetbrains.annotations.Nullable;
 
 import wtf.choco.veinminer.VeinMinerPlugin;
 import wtf.choco.veinminer.block.BlockList;
+import wtf.choco.veinminer.block.BlockMatcher;
 import wtf.choco.veinminer.block.VeinMinerBlock;
 import wtf.choco.veinminer.config.VeinMiningConfiguration;
+import wtf.choco.veinminer.util.BlockPosition;
+import wtf.choco.veinminer.util.LongRingBuffer;
 
 /**
  * A tunnel {@link VeinMiningPattern} that mines a square tunnel in a direction.
@@ -24,9 +31,10 @@ public final class VeinMiningPatternTunnel implements VeinMiningPattern {
 
     private static final int DEFAULT_TUNNEL_RADIUS = 1;
 
-    private static final BiAxisRelativeGetter RELATIVE_GETTER_NORTH_SOUTH = (position, x, y) -> position.getRelative(x, y, 0);
-    private static final BiAxisRelativeGetter RELATIVE_GETTER_EAST_WEST = (position, y, z) -> position.getRelative(0, y, z);
-    private static final BiAxisRelativeGetter RELATIVE_GETTER_UP_DOWN = (position, x, z) -> position.getRelative(x, 0, z);
+    // The two axes spanning the square that is mined at each depth of the tunnel
+    private static final BlockFace[] PLANE_NORTH_SOUTH = {BlockFace.EAST, BlockFace.UP};
+    private static final BlockFace[] PLANE_EAST_WEST = {BlockFace.UP, BlockFace.SOUTH};
+    private static final BlockFace[] PLANE_UP_DOWN = {BlockFace.EAST, BlockFace.SOUTH};
 
     private final int radius;
 
@@ -55,34 +63,24 @@ public final class VeinMiningPatternTunnel implements VeinMiningPattern {
     @NotNull
     @Override
     public List<Block> allocateBlocks(@NotNull Block origin, @NotNull BlockFace destroyedFace, @NotNull VeinMinerBlock block, @NotNull VeinMiningConfiguration config, @Nullable BlockList aliasList) {
-        List<Block> positions = new ArrayList<>();
-        BlockFace tunnelDirection = destroyedFace.getOppositeFace();
-
-        BiAxisRelativeGetter relativeGetter = getRelativeGetter(tunnelDirection);
-        Block currentCenter = origin;
-        int maxVeinSize = config.getMaxVeinSize();
-
-        /*
-         * So that this can't be abused by players, the tunnel length has to be capped. Otherwise, players could
-         * theoretically mine a "max vein size"-length 1x1 tunnel of blocks, which is not ideal.
-         *
-         * To combat this, the maximum tunnel depth should be equal to the depth you would be able to reach should
-         * a perfect radius-sized tunnel be mined. For instance, with a radius of 1 and maximum vein size of 64, 9
-         * blocks are mined in a single depth (a square of 3x3 blocks), meaning that the maximum tunnel depth would
-         * be (max blocks / 9), or 7.1. Rounding up results is a tunnel of depth 8. Therefore, if a 1x1 tunnel were
-         * mined, the maximum length can then be limited to just 8 blocks instead of 64 had it not been restricted.
-         *
-         * This is a decent compromise to avoid players mining 4 chunks ahead of them if the tunnel is very thin...
-         */
-        int blocksPerSquare = (int) Math.pow((radius * 2) + 1, 2);
-        int maxTunnelDepth = (int) Math.ceil(((double) maxVeinSize) / blocksPerSquare);
-        BlockData originBlockData = origin.getBlockData();
-
-        while (maxTunnelDepth-- > 0 && calculateSquare(positions, originBlockData, currentCenter, block, aliasList, maxVeinSize, relativeGetter)) {
-            currentCenter = currentCenter.getRelative(tunnelDirection);
+        return allocateBlocks(BlockAccessor.world(origin.getWorld()), origin, destroyedFace, block, config, aliasList);
+    }
+
+    @NotNull
+    @Override
+    public Iterator<Block> iterateBlocks(@NotNull BlockAccessor accessor, @NotNull Block origin, @NotNull BlockFace destroyedFace, @NotNull VeinMinerBlock block, @NotNull VeinMiningConfiguration config, @Nullable BlockList aliasList) {
+        BlockData originBlockData = accessor.getBlockData(origin.getX(), origin.getY(), origin.getZ());
+        if (originBlockData == null) {
+            return Collections.emptyIterator();
         }
 
-        return positions;
+        BlockMatcher matcher = BlockMatcher.compile(block, aliasList, originBlockData);
+        return new TunnelIterator(accessor, origin, destroyedFace.getOppositeFace(), matcher, config.getMaxVeinSize());
+    }
+
+    @Override
+    public boolean supportsAsyncAllocation() {
+        return true;
     }
 
     @Nullable
@@ -91,43 +89,97 @@ public final class VeinMiningPatternTunnel implements VeinMiningPattern {
         return "veinminer.pattern.tunnel";
     }
 
-    private boolean calculateSquare(List<Block> positions, BlockData originState, Block center, VeinMinerBlock block, BlockList aliasList, int maxVeinSize, BiAxisRelativeGetter relativeGetter) {
-        boolean changed = false;
-
-        // Get the possible mod values for that axis which should be -1, 0, and 1. Or just 0 for the axis that is ignored (set to 0 above)
-        for (int i = -radius; i <= radius; i++) {
-            for (int j = -radius; j <= radius; j++) {
-                Block relative = relativeGetter.apply(center, i, j);
-                if (positions.contains(relative) || !PatternUtils.typeMatches(block, aliasList, originState, relative.getBlockData())) {
-                    continue;
-                }
+    private static BlockFace[] getPlane(BlockFace face) {
+        return switch (face) {
+            case NORTH, SOUTH -> PLANE_NORTH_SOUTH;
+            case EAST, WEST -> PLANE_EAST_WEST;
+            case UP, DOWN -> PLANE_UP_DOWN;
+            default -> throw new UnsupportedOperationException("Not a cardinal direction");
+        };
+    }
 
-                changed |= positions.add(relative);
+    // Allocates one square of the tunnel at a time, only moving on to the next depth once the last square has been consumed
+    private final class TunnelIterator extends AbstractIterator<Block> {
+
+        private final BlockAccessor accessor;
+        private final World world;
+        private final BlockFace tunnelDirection;
+        private final BlockFace[] plane;
+        private final BlockMatcher matcher;
+        private final int maxVeinSize;
+
+        private final LongRingBuffer square;
+        private int centerX, centerY, centerZ;
+        private int remainingDepth;
+        private int allocated = 0;
+
+        private TunnelIterator(BlockAccessor accessor, Block origin, BlockFace tunnelDirection, BlockMatcher matcher, int maxVeinSize) {
+            this.accessor = accessor;
+            this.world = accessor.getWorld();
+            this.tunnelDirection = tunnelDirection;
+            this.plane = getPlane(tunnelDirection);
+            this.matcher = matcher;
+            this.maxVeinSize = maxVeinSize;
+
+            this.centerX = origin.getX();
+            this.centerY = origin.getY();
+            this.centerZ = origin.getZ();
+
+            /*
+             * So that this can't be abused by players, the tunnel length has to be capped. Otherwise, players could
+             * theoretically mine a "max vein size"-length 1x1 tunnel of blocks, which is not ideal.
+             *
+             * To combat this, the maximum tunnel depth should be equal to the depth you would be able to reach should
+             * a perfect radius-sized tunnel be mined. For instance, with a radius of 1 and maximum vein size of 64, 9
+             * blocks are mined in a single depth (a square of 3x3 blocks), meaning that the maximum tunnel depth would
+             * be (max blocks / 9), or 7.1. Rounding up results is a tunnel of depth 8. Therefore, if a 1x1 tunnel were
+             * mined, the maximum length can then be limited to just 8 blocks instead of 64 had it not been restricted.
+             *
+             * This is a decent compromise to avoid players mining 4 chunks ahead of them if the tunnel is very thin...
+             */
+            int blocksPerSquare = (int) Math.pow((radius * 2) + 1, 2);
+            this.remainingDepth = (int) Math.ceil(((double) maxVeinSize) / blocksPerSquare);
+            this.square = new LongRingBuffer(blocksPerSquare);
+        }
 
-                if (positions.size() >= maxVeinSize) {
-                    return false;
-                }
+        @Override
+        protected Block computeNext() {
+            // The tunnel ends at the first square in which nothing could be allocated
+            if (square.isEmpty() && (allocated >= maxVeinSize || remainingDepth-- <= 0 || !calculateSquare())) {
+                return endOfData();
             }
+
+            long position = square.dequeue();
+            return world.getBlockAt(BlockPosition.unpackX(position), BlockPosition.unpackY(position), BlockPosition.unpackZ(position));
         }
 
-        return changed;
-    }
+        private boolean calculateSquare() {
+            BlockFace first = plane[0], second = plane[1];
 
-    @FunctionalInterface
-    private interface BiAxisRelativeGetter {
+            // Squares at different depths never overlap, so every position in this square is guaranteed to be new
+            for (int i = -radius; i <= radius; i++) {
+                for (int j = -radius; j <= radius; j++) {
+                    int x = centerX + (i * first.getModX()) + (j * second.getModX());
+                    int y = centerY + (i * first.getModY()) + (j * second.getModY());
+                    int z = centerZ + (i * first.getModZ()) + (j * second.getModZ());
 
-        @NotNull
-        public Block apply(@NotNull Block block, int first, int second);
+                    if (!PatternUtils.matches(matcher, accessor, x, y, z)) {
+                        continue;
+                    }
 
-    }
+                    this.square.enqueue(BlockPosition.pack(x, y, z));
+                    if (++allocated >= maxVeinSize) {
+                        return true;
+                    }
+                }
+            }
+
+            this.centerX += tunnelDirection.getModX();
+            this.centerY += tunnelDirection.getModY();
+            this.centerZ += tunnelDirection.getModZ();
+            return !square.isEmpty();
+        }
 
-    private static BiAxisRelativeGetter getRelativeGetter(BlockFace face) {
-        return switch (face) {
-            case NORTH, SOUTH -> RELATIVE_GETTER_NORTH_SOUTH;
-            case EAST, WEST -> RELATIVE_GETTER_EAST_WEST;
-            case UP, DOWN -> RELATIVE_GETTER_UP_DOWN;
-            default -> throw new UnsupportedOperationException("Not a cardinal direction");
-        };
     }
 
 }
@@ -0,0 +1,108 @@
+package wtf.choco.veinminer.pattern;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import wtf.choco.veinminer.metrics.StatTracker;
+import wtf.choco.veinminer.util.LongHashSet;
+
+/*
+ * Reads block states straight from the world, but never from unloaded chunks. Reading a block in an
+ * unloaded chunk would load (or even generate) it synchronously, so unloaded chunks are instead treated
+ * as walls and the allocation is flagged as clipped. Whether or not a chunk is loaded is only checked
+ * once per allocation since probes revisit the same few chunks over and over.
+ */
+final class WorldBlockAccessor implements BlockAccessor {
+
+    private final World world;
+    private final int minHeight, maxHeight;
+
+    private final LongHashSet loadedChunks = new LongHashSet(8);
+    private final LongHashSet unloadedChunks = new LongHashSet(8);
+
+    private int lastChunkX, lastChunkZ;
+    private boolean lastChunkLoaded;
+
+    private boolean clipped = false;
+
+    WorldBlockAccessor(@NotNull World world) {
+        this.world = world;
+        this.minHeight = world.getMinHeight();
+        this.maxHeight = world.getMaxHeight();
+
+        // Prime the cache with a chunk that can never be loaded so the first lookup always misses
+        this.lastChunkX = Integer.MIN_VALUE;
+        this.lastChunkZ = Integer.MIN_VALUE;
+    }
+
+    @NotNull
+    @Override
+    public World getWorld() {
+        return world;
+    }
+
+    @Nullable
+    @Override
+    public BlockData getBlockData(int x, int y, int z) {
+        return isReadable(x, y, z) ? world.getBlockData(x, y, z) : null;
+    }
+
+    @Nullable
+    @Override
+    public Material getType(int x, int y, int z) {
+        return isReadable(x, y, z) ? world.getType(x, y, z) : null; // Unlike getBlockData(), doesn't create a new BlockData instance
+    }
+
+    @Override
+    public boolean isClipped() {
+        return clipped;
+    }
+
+    private boolean isReadable(int x, int y, int z) {
+        if (y < minHeight || y >= maxHeight) {
+            return false;
+        }
+
+        if (!isChunkLoaded(x >> 4, z >> 4)) {
+            if (!clipped) {
+                this.clipped = true;
+                StatTracker.incrementClippedVeins();
+            }
+
+            return false;
+        }
+
+        return true;
+    }
+
+    private boolean isChunkLoaded(int chunkX, int chunkZ) {
+        if (chunkX == lastChunkX && chunkZ == lastChunkZ) {
+            return lastChunkLoaded;
+        }
+
+        long chunkKey = ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+        boolean loaded;
+        if (loadedChunks.contains(chunkKey)) {
+            loaded = true;
+        } else if (unloadedChunks.contains(chunkKey)) {
+            loaded = false;
+        } else {
+            loaded = world.isChunkLoaded(chunkX, chunkZ);
+
+            if (loaded) {
+                this.loadedChunks.add(chunkKey);
+            } else {
+                this.unloadedChunks.add(chunkKey);
+            }
+        }
+
+        this.lastChunkX = chunkX;
+        this.lastChunkZ = chunkZ;
+        this.lastChunkLoaded = loaded;
+        return loaded;
+    }
+
+}
@@ -0,0 +1,44 @@
+package wtf.choco.veinminer.player;
+
+import java.util.Arrays;
+
+import org.bukkit.permissions.Permissible;
+import org.jetbrains.annotations.NotNull;
+
+import wtf.choco.veinminer.util.PermissionNodes;
+
+/*
+ * A per-player cache of dynamic permission checks, held as two bit sets indexed by PermissionNodes.
+ * A node is checked against the Permissible the first time it is queried and remembered after that.
+ * Rather than being cleared, a stale instance is replaced by a new one, so instances are only ever
+ * used from the thread on which the player is ticked.
+ */
+final class GrantedPermissions {
+
+    private long[] checked = new long[1];
+    private long[] granted = new long[1];
+
+    boolean has(@NotNull Permissible permissible, @NotNull String node) {
+        int index = PermissionNodes.indexOf(node);
+        int word = index >>> 6;
+        long bit = 1L << index;
+
+        if (word >= checked.length) {
+            this.checked = Arrays.copyOf(checked, word + 1);
+            this.granted = Arrays.copyOf(granted, word + 1);
+        }
+
+        if ((checked[word] & bit) != 0) {
+            return (granted[word] & bit) != 0;
+        }
+
+        boolean has = permissible.hasPermission(node);
+        this.checked[word] |= bit;
+        if (has) {
+            this.granted[word] |= bit;
+        }
+
+        return has;
+    }
+
+}
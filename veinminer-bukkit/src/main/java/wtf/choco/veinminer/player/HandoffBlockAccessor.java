@@ -0,0 +1,95 @@
+package wtf.choco.veinminer.player;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import wtf.choco.veinminer.pattern.BlockAccessor;
+
+/*
+ * Lets a preview start allocating from the world on the thread that received the request and finish
+ * on a worker thread without starting over. Reads go to the world until the accessor is handed off to
+ * a snapshot, at which point the pattern's iterator (which only ever reads through this accessor) can
+ * be handed to the worker as is. The area read before the hand-off is tracked so that the snapshot
+ * only needs to cover the area the rest of the vein can still reach.
+ *
+ * Not thread safe. The hand-off must happen before the worker is given the iterator.
+ */
+final class HandoffBlockAccessor implements BlockAccessor {
+
+    private BlockAccessor delegate;
+    private boolean handedOff = false;
+    private boolean clippedBeforeHandoff = false;
+
+    private int minX = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+    private int maxX = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+
+    HandoffBlockAccessor(@NotNull BlockAccessor delegate) {
+        this.delegate = delegate;
+    }
+
+    @NotNull
+    @Override
+    public World getWorld() {
+        return delegate.getWorld();
+    }
+
+    @Nullable
+    @Override
+    public BlockData getBlockData(int x, int y, int z) {
+        this.track(x, z);
+        return delegate.getBlockData(x, y, z);
+    }
+
+    @Nullable
+    @Override
+    public Material getType(int x, int y, int z) {
+        this.track(x, z);
+        return delegate.getType(x, y, z);
+    }
+
+    @Override
+    public boolean isClipped() {
+        return clippedBeforeHandoff || delegate.isClipped();
+    }
+
+    void handOff(@NotNull BlockAccessor delegate) {
+        this.clippedBeforeHandoff = this.delegate.isClipped();
+        this.delegate = delegate;
+        this.handedOff = true;
+    }
+
+    boolean isClippedBeforeHandoff() {
+        return clippedBeforeHandoff;
+    }
+
+    int getMinX() {
+        return minX;
+    }
+
+    int getMinZ() {
+        return minZ;
+    }
+
+    int getMaxX() {
+        return maxX;
+    }
+
+    int getMaxZ() {
+        return maxZ;
+    }
+
+    private void track(int x, int z) {
+        if (handedOff) {
+            return;
+        }
+
+        this.minX = Math.min(minX, x);
+        this.minZ = Math.min(minZ, z);
+        this.maxX = Math.max(maxX, x);
+        this.maxZ = Math.max(maxZ, z);
+    }
+
+}
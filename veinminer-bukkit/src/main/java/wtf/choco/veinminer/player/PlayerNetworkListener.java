@@ -3,16 +3,18 @@ package wtf.choco.veinminer.player;
 import com.google.common.base.Preconditions;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.bukkit.NamespacedKey;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.ItemStack;
 import org.bukkit.util.RayTraceResult;
 import org.jetbrains.annotations.ApiStatus.Internal;
 import org.jetbrains.annotations.NotNull;
@@ -21,7 +23,9 @@ import wtf.choco.veinminer.VeinMiner;
 import wtf.choco.veinminer.VeinMinerPlugin;
 import wtf.choco.veinminer.api.event.player.PlayerVeinMiningPatternChangeEvent;
 import wtf.choco.veinminer.block.BlockList;
+import wtf.choco.veinminer.block.BlockMatcher;
 import wtf.choco.veinminer.block.VeinMinerBlock;
+import wtf.choco.veinminer.config.VeinMiningConfiguration;
 import wtf.choco.veinminer.language.LanguageKeys;
 import wtf.choco.veinminer.manager.VeinMinerManager;
 import wtf.choco.veinminer.network.NetworkUtil;
@@ -34,7 +38,10 @@ import wtf.choco.veinminer.network.protocol.serverbound.ServerboundHandshake;
 import wtf.choco.veinminer.network.protocol.serverbound.ServerboundRequestVeinMine;
 import wtf.choco.veinminer.network.protocol.serverbound.ServerboundSelectPattern;
 import wtf.choco.veinminer.network.protocol.serverbound.ServerboundToggleVeinMiner;
+import wtf.choco.veinminer.pattern.BlockAccessor;
+import wtf.choco.veinminer.pattern.BudgetedBlockAccessor;
 import wtf.choco.veinminer.pattern.PatternRegistry;
+import wtf.choco.veinminer.pattern.VeinAllocationCache;
 import wtf.choco.veinminer.pattern.VeinMiningPattern;
 import wtf.choco.veinminer.tool.VeinMinerToolCategory;
 import wtf.choco.veinminer.util.AttributeUtil;
@@ -51,11 +58,28 @@ import wtf.choco.veinminer.util.VMEventFactory;
 @Internal
 public final class PlayerNetworkListener implements VeinMinerServerboundMessageListener {
 
+    /*
+     * The amount of probes a preview may use while being allocated on the thread that received the
+     * request. Capturing chunks for a worker thread costs more than allocating most veins outright,
+     * so only veins that need more than this are handed off to a worker, which resumes from there.
+     */
+    private static final int SYNCHRONOUS_PREVIEW_MAX_PROBES = 2048;
+
+    /*
+     * The furthest (in blocks) beyond the area probed on the receiving thread that is captured for a
+     * worker. The configured limits may allow a vein to reach much further than this, but only a vein
+     * that runs in a straight line ever does, so capturing all of it would mostly copy chunks that are
+     * never read. The rare vein that does reach beyond the capture is allocated again from the world.
+     */
+    private static final int PREVIEW_MAX_CAPTURE_EXPANSION = 48;
+
     private boolean clientReady = false;
     private boolean usingClientMod = false;
     private boolean clientKeyPressed = false;
     private Queue<Runnable> onClientReadyTasks = new ConcurrentLinkedQueue<>();
 
+    private final AtomicLong latestPreviewRequestId = new AtomicLong();
+
     private final VeinMinerPlayer player;
 
     PlayerNetworkListener(@NotNull VeinMinerPlayer player) {
@@ -147,12 +171,7 @@ public final class PlayerNetworkListener implements VeinMinerServerboundMessageL
             // Don't send any patterns to which the player does not have access
             patternKeys.removeIf(patternKey -> {
                 VeinMiningPattern pattern = patternRegistry.get(patternKey);
-                if (pattern == null) {
-                    return true;
-                }
-
-                String permission = pattern.getPermission();
-                return permission != null && !player.getPlayer().hasPermission(permission);
+                return pattern == null || !player.hasPermission(pattern);
             });
 
             this.player.sendMessage(new ClientboundSyncRegisteredPatterns(NetworkUtil.toNetwork(patternKeys)));
@@ -183,10 +202,12 @@ public final class PlayerNetworkListener implements VeinMinerServerboundMessageL
 
     @Override
     public void handleRequestVeinMine(@NotNull ServerboundRequestVeinMine message) {
+        // Every request supersedes the last, even if it fails, so that any preview still in flight is discarded
+        long requestId = latestPreviewRequestId.incrementAndGet();
+
         Player bukkitPlayer = player.getPlayer();
-        ItemStack itemStack = bukkitPlayer.getInventory().getItemInMainHand();
         VeinMinerPlugin plugin = VeinMinerPlugin.getInstance();
-        VeinMinerToolCategory category = plugin.getToolCategoryRegistry().get(itemStack);
+        VeinMinerToolCategory category = player.getHeldToolCategory();
 
         if (category == null) {
             this.player.sendMessage(new ClientboundVeinMineResults());
@@ -215,7 +236,8 @@ public final class PlayerNetworkListener implements VeinMinerServerboundMessageL
             return;
         }
 
-        targetBlock = targetBlock.getWorld().getBlockAt(clientTargetBlock.x(), clientTargetBlock.y(), clientTargetBlock.z());
+        World world = targetBlock.getWorld();
+        targetBlock = world.getBlockAt(clientTargetBlock.x(), clientTargetBlock.y(), clientTargetBlock.z());
         BlockData targetBlockData = targetBlock.getBlockData();
 
         VeinMinerManager veinMinerManager = plugin.getVeinMinerManager();
@@ -227,9 +249,99 @@ public final class PlayerNetworkListener implements VeinMinerServerboundMessageL
         }
 
         BlockList aliasBlockList = veinMinerManager.getAliases(vmBlock);
-        List<Block> blocks = player.getVeinMiningPattern().allocateBlocks(targetBlock, targetBlockFace, vmBlock, category.getConfiguration(), aliasBlockList);
+        VeinMiningPattern pattern = player.getVeinMiningPattern();
+        VeinMiningConfiguration config = category.getConfiguration();
+
+        // The same vein may well have been allocated moments ago, either for this player or another
+        VeinAllocationCache cache = plugin.getVeinAllocationCache();
+        VeinAllocationCache.Key cacheKey = VeinAllocationCache.Key.of(targetBlock, targetBlockData, targetBlockFace, pattern, category, aliasBlockList);
+        long[] cachedPositions = cache.get(cacheKey, world, BlockMatcher.compile(vmBlock, aliasBlockList, targetBlockData));
+        if (cachedPositions != null) {
+            this.player.sendMessage(new ClientboundVeinMineResults(toPositions(cachedPositions)));
+            return;
+        }
+
+        PreviewRequest request = new PreviewRequest(targetBlock, targetBlockFace, vmBlock, aliasBlockList, pattern, config, cacheKey);
+
+        // Patterns that may read the world directly have to be allocated here, on the thread that owns the target
+        if (!pattern.supportsAsyncAllocation()) {
+            this.player.sendMessage(new ClientboundVeinMineResults(toPositions(request.allocateFromWorld(cache))));
+            return;
+        }
+
+        // Start allocating here. Most veins are small enough to be done before capturing the chunks around them would be
+        HandoffBlockAccessor handoffAccessor = new HandoffBlockAccessor(BlockAccessor.world(world));
+        PreviewBlockAccessor accessor = new PreviewBlockAccessor(handoffAccessor, requestId, latestPreviewRequestId::get);
+        BudgetedBlockAccessor budgetedAccessor = BlockAccessor.budgeted(accessor, config);
+        Iterator<Block> iterator = budgetedAccessor.timed(request.iterate(budgetedAccessor));
+        List<Block> blocks = new ArrayList<>();
+
+        while (iterator.hasNext() && budgetedAccessor.getProbes() < SYNCHRONOUS_PREVIEW_MAX_PROBES) {
+            blocks.add(iterator.next());
+        }
+
+        if (!iterator.hasNext()) {
+            long[] positions = VeinAllocationCache.pack(blocks);
+            if (!budgetedAccessor.isClipped()) {
+                cache.put(cacheKey, positions);
+            }
+
+            this.player.sendMessage(new ClientboundVeinMineResults(toPositions(positions)));
+            return;
+        }
+
+        // Otherwise, capture the area the rest of the vein can still reach. Each block left to allocate (or probe) reaches at most one block further
+        long remaining = config.getMaxVeinSize() - blocks.size();
+        if (config.getMaxAllocationProbes() > 0) {
+            remaining = Math.min(remaining, config.getMaxAllocationProbes() - budgetedAccessor.getProbes());
+        }
+
+        int expansion = (int) Math.min(Math.max(remaining, 0) + 1, PREVIEW_MAX_CAPTURE_EXPANSION);
+        int minX = handoffAccessor.getMinX() - expansion, minZ = handoffAccessor.getMinZ() - expansion;
+        int maxX = handoffAccessor.getMaxX() + expansion, maxZ = handoffAccessor.getMaxZ() + expansion;
+        VeinAllocationCache.Stamp stamp = cache.stamp(world, minX, minZ, maxX, maxZ);
+        handoffAccessor.handOff(BlockAccessor.snapshot(world, minX, minZ, maxX, maxZ));
+
+        // Then leave the rest of the allocation to a worker thread, which picks up right where it was left off here
+        boolean submitted = plugin.getVeinMinePreviewExecutor().submit(() -> {
+            if (accessor.isCancelled()) {
+                return;
+            }
 
-        this.player.sendMessage(new ClientboundVeinMineResults(blocks.parallelStream().map(block -> new BlockPosition(block.getX(), block.getY(), block.getZ())).toList()));
+            iterator.forEachRemaining(blocks::add);
+            if (accessor.isCancelled()) {
+                return;
+            }
+
+            // A vein reaching beyond the captured area would be sent truncated, so it is allocated again from the world instead
+            boolean truncated = handoffAccessor.isClipped() && !handoffAccessor.isClippedBeforeHandoff() && budgetedAccessor.getStopReason() == null;
+            if (truncated) {
+                plugin.getFoliaLib().getScheduler().runAtEntity(bukkitPlayer, task -> {
+                    if (!accessor.isCancelled() && bukkitPlayer.isOnline()) {
+                        this.player.sendMessage(new ClientboundVeinMineResults(toPositions(request.allocateFromWorld(cache))));
+                    }
+                });
+                return;
+            }
+
+            // Blocks may have changed since the snapshot was captured, in which case the vein is still sent but not cached
+            long[] allocatedPositions = VeinAllocationCache.pack(blocks);
+            if (!budgetedAccessor.isClipped()) {
+                cache.put(cacheKey, allocatedPositions, stamp);
+            }
+
+            // Hop back onto the player's thread to send, but only if the player hasn't looked elsewhere in the meantime
+            List<BlockPosition> blockPositions = toPositions(allocatedPositions);
+            plugin.getFoliaLib().getScheduler().runAtEntity(bukkitPlayer, task -> {
+                if (!accessor.isCancelled() && bukkitPlayer.isOnline()) {
+                    this.player.sendMessage(new ClientboundVeinMineResults(blockPositions));
+                }
+            });
+        });
+
+        if (!submitted) {
+            this.player.sendMessage(new ClientboundVeinMineResults());
+        }
     }
 
     @Override
@@ -240,9 +352,7 @@ public final class PlayerNetworkListener implements VeinMinerServerboundMessageL
 
         VeinMinerPlugin plugin = VeinMinerPlugin.getInstance();
         VeinMiningPattern pattern = plugin.getPatternRegistry().getOrDefault(NetworkUtil.toBukkit(message.getPatternKey()), plugin.getConfiguration().getDefaultVeinMiningPattern());
-        String patternPermission = pattern.getPermission();
-
-        if (patternPermission != null && !player.getPlayer().hasPermission(patternPermission)) {
+        if (!player.hasPermission(pattern)) {
             return;
         }
 
@@ -254,4 +364,37 @@ public final class PlayerNetworkListener implements VeinMinerServerboundMessageL
         this.player.setVeinMiningPattern(event.getNewPattern());
     }
 
+    private static List<BlockPosition> toPositions(long[] packedPositions) {
+        List<BlockPosition> positions = new ArrayList<>(packedPositions.length);
+        for (long packedPosition : packedPositions) {
+            positions.add(BlockPosition.unpack(packedPosition));
+        }
+
+        return positions;
+    }
+
+    // Everything needed to allocate the vein of a single preview request, whichever thread it ends up allocated on
+    private record PreviewRequest(Block origin, BlockFace face, VeinMinerBlock block, BlockList aliases, VeinMiningPattern pattern, VeinMiningConfiguration config, VeinAllocationCache.Key cacheKey) {
+
+        long[] allocate(BlockAccessor accessor) {
+            return VeinAllocationCache.pack(pattern.allocateBlocks(accessor, origin, face, block, config, aliases));
+        }
+
+        Iterator<Block> iterate(BlockAccessor accessor) {
+            return pattern.iterateBlocks(accessor, origin, face, block, config, aliases);
+        }
+
+        // Allocates from the world on the thread that owns the origin, caching the vein if it is complete
+        long[] allocateFromWorld(VeinAllocationCache cache) {
+            BlockAccessor accessor = BlockAccessor.budgeted(BlockAccessor.world(origin.getWorld()), config);
+            long[] positions = allocate(accessor);
+            if (!accessor.isClipped()) {
+                cache.put(cacheKey, positions);
+            }
+
+            return positions;
+        }
+
+    }
+
 }
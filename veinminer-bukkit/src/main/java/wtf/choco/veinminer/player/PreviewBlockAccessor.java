@@ -0,0 +1,57 @@
+package wtf.choco.veinminer.player;
+
+import java.util.function.LongSupplier;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import wtf.choco.veinminer.pattern.BlockAccessor;
+
+/*
+ * Wraps the accessor of a single preview request. As soon as a newer request from the
+ * same player arrives, every read returns null so the pattern runs out of blocks to match and the
+ * stale allocation finishes almost immediately rather than running to completion.
+ */
+final class PreviewBlockAccessor implements BlockAccessor {
+
+    private final BlockAccessor delegate;
+    private final long requestId;
+    private final LongSupplier latestRequestId;
+
+    PreviewBlockAccessor(@NotNull BlockAccessor delegate, long requestId, @NotNull LongSupplier latestRequestId) {
+        this.delegate = delegate;
+        this.requestId = requestId;
+        this.latestRequestId = latestRequestId;
+    }
+
+    @NotNull
+    @Override
+    public World getWorld() {
+        return delegate.getWorld();
+    }
+
+    @Nullable
+    @Override
+    public BlockData getBlockData(int x, int y, int z) {
+        return isCancelled() ? null : delegate.getBlockData(x, y, z);
+    }
+
+    @Nullable
+    @Override
+    public Material getType(int x, int y, int z) {
+        return isCancelled() ? null : delegate.getType(x, y, z);
+    }
+
+    @Override
+    public boolean isClipped() {
+        return delegate.isClipped();
+    }
+
+    boolean isCancelled() {
+        return latestRequestId.getAsLong() != requestId;
+    }
+
+}
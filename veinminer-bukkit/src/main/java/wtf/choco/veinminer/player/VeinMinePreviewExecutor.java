@@ -0,0 +1,89 @@
+package wtf.choco.veinminer.player;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.ApiStatus.Internal;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A small, bounded pool of worker threads on which vein mine previews requested by client mods
+ * are allocated.
+ * <p>
+ * The pool's queue is bounded. When it fills up, the oldest queued preview is discarded in favour
+ * of the newest one. Preview requests are superseded every time a player looks at another block,
+ * so the oldest request is always the least likely to still be relevant.
+ * <p>
+ * <strong>NOTE:</strong> Not part of the public API. This class is intended for internal use only.
+ */
+@Internal
+public final class VeinMinePreviewExecutor {
+
+    private static final int QUEUE_CAPACITY = 128;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Construct a new {@link VeinMinePreviewExecutor}.
+     *
+     * @param threads the maximum amount of worker threads
+     */
+    public VeinMinePreviewExecutor(int threads) {
+        this.executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            new WorkerThreadFactory(),
+            new ThreadPoolExecutor.DiscardOldestPolicy()
+        );
+        this.executor.allowCoreThreadTimeOut(true); // Don't keep idle threads around on servers without modded players
+    }
+
+    /**
+     * Construct a new {@link VeinMinePreviewExecutor} with a thread count suitable for the
+     * amount of available processors.
+     */
+    public VeinMinePreviewExecutor() {
+        this(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 4)));
+    }
+
+    /**
+     * Submit a preview allocation task to be executed on a worker thread.
+     *
+     * @param task the task to execute
+     *
+     * @return true if the task was accepted, false if this executor has been shut down
+     */
+    public boolean submit(@NotNull Runnable task) {
+        try {
+            this.executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Shut down this executor. Queued tasks are discarded and running tasks are interrupted.
+     */
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NotNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "VeinMiner Preview Worker #" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+}
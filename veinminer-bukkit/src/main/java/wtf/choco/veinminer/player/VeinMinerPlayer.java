@@ -7,9 +7,13 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.function.Consumer;
 
+import org.bukkit.Material;
 import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
 import org.jetbrains.annotations.ApiStatus.Internal;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.UnmodifiableView;
 
 import wtf.choco.network.Message;
@@ -24,6 +28,7 @@ import wtf.choco.veinminer.network.protocol.VeinMinerServerboundMessageListener;
 import wtf.choco.veinminer.network.protocol.clientbound.ClientboundSetConfig;
 import wtf.choco.veinminer.network.protocol.clientbound.ClientboundSetPattern;
 import wtf.choco.veinminer.pattern.VeinMiningPattern;
+import wtf.choco.veinminer.tool.ToolCategoryRegistry;
 import wtf.choco.veinminer.tool.VeinMinerToolCategory;
 
 /**
@@ -41,6 +46,9 @@ public final class VeinMinerPlayer implements MessageReceiver {
 
     private ClientConfig clientConfig;
 
+    private volatile HeldToolCategory heldToolCategory;
+    private volatile GrantedPermissions permissions = new GrantedPermissions();
+
     private final Player player;
     private final PlayerNetworkListener networkListener;
 
@@ -63,6 +71,90 @@ public final class VeinMinerPlayer implements MessageReceiver {
         this.networkListener = new PlayerNetworkListener(this);
     }
 
+    /**
+     * Get the {@link VeinMinerToolCategory} of the item held in this player's main hand, only
+     * considering categories that the player has permission to vein mine with.
+     * <p>
+     * The resolved category is cached until the held item slot or item type changes, categories
+     * are modified, permissions are refreshed, or {@link #invalidateHeldToolCategory()} is called.
+     * <p>
+     * <strong>NOTE:</strong> Not part of the public API. This method is intended for internal use only.
+     *
+     * @return the category of the held item, or null if the held item is not in any category
+     */
+    @Internal
+    @Nullable
+    public VeinMinerToolCategory getHeldToolCategory() {
+        ToolCategoryRegistry registry = VeinMinerPlugin.getInstance().getToolCategoryRegistry();
+        long registryModifications = registry.getModificationCount();
+
+        PlayerInventory inventory = player.getInventory();
+        int slot = inventory.getHeldItemSlot();
+        ItemStack item = inventory.getItemInMainHand();
+        Material type = item.getType();
+
+        HeldToolCategory cached = this.heldToolCategory;
+        if (cached != null && cached.slot() == slot && cached.type() == type && cached.registryModifications() == registryModifications) {
+            return cached.category();
+        }
+
+        VeinMinerToolCategory category = registry.get(item, this::hasPermission);
+        this.heldToolCategory = new HeldToolCategory(slot, type, registryModifications, category);
+        return category;
+    }
+
+    /**
+     * Invalidate the cached {@link VeinMinerToolCategory} of the item held in this player's main
+     * hand such that it is resolved again the next time {@link #getHeldToolCategory()} is called.
+     * This should be called whenever the held item or the player's permissions may have changed.
+     * <p>
+     * <strong>NOTE:</strong> Not part of the public API. This method is intended for internal use only.
+     */
+    @Internal
+    public void invalidateHeldToolCategory() {
+        this.heldToolCategory = null;
+    }
+
+    /**
+     * Check whether or not this player has permission to vein mine with the given
+     * {@link VeinMinerToolCategory}.
+     * <p>
+     * The result is cached until {@link #refreshPermissions()} is called, which VeinMiner does
+     * periodically, when reloaded, and when the player changes worlds.
+     *
+     * @param category the category to check
+     *
+     * @return true if the player has permission, false otherwise
+     */
+    public boolean hasPermission(@NotNull VeinMinerToolCategory category) {
+        return permissions.has(player, category.getPermission());
+    }
+
+    /**
+     * Check whether or not this player has permission to use the given {@link VeinMiningPattern}.
+     * <p>
+     * The result is cached until {@link #refreshPermissions()} is called, which VeinMiner does
+     * periodically, when reloaded, and when the player changes worlds.
+     *
+     * @param pattern the pattern to check
+     *
+     * @return true if the player has permission or the pattern requires no permission, false otherwise
+     */
+    public boolean hasPermission(@NotNull VeinMiningPattern pattern) {
+        String permission = pattern.getPermission();
+        return permission == null || permissions.has(player, permission);
+    }
+
+    /**
+     * Discard all cached permission checks made by {@link #hasPermission(VeinMinerToolCategory)}
+     * and {@link #hasPermission(VeinMiningPattern)} such that they are checked again the next
+     * time they are queried.
+     */
+    public void refreshPermissions() {
+        this.permissions = new GrantedPermissions();
+        this.heldToolCategory = null;
+    }
+
     /**
      * Get the wrapped {@link Player}.
      * <p>
@@ -435,4 +527,6 @@ public final class VeinMinerPlayer implements MessageReceiver {
         VeinMiner.PROTOCOL.sendMessageToClient(this, message);
     }
 
+    private record HeldToolCategory(int slot, Material type, long registryModifications, @Nullable VeinMinerToolCategory category) { }
+
 }
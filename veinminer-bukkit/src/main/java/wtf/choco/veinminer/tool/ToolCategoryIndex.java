@@ -0,0 +1,92 @@
+package wtf.choco.veinminer.tool;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+
+import wtf.choco.veinminer.util.MaterialBitSet;
+
+/*
+ * An immutable index of registered categories by the items they contain. For each item type, the
+ * categories containing it are held in an array sorted by priority (highest first), so the first
+ * applicable category in the array is the one to use. Types for which at least one of those
+ * categories requires an NBT value are also recorded, so that NBT need only be read from items
+ * when it could actually make a difference.
+ *
+ * The index remembers the modification counts of the registry and of category items from when it
+ * was built, and is out of date as soon as either of them changes.
+ */
+final class ToolCategoryIndex {
+
+    private static final VeinMinerToolCategory[] NO_CATEGORIES = new VeinMinerToolCategory[0];
+    private static final Material[] MATERIALS = Material.values();
+
+    private static final Comparator<VeinMinerToolCategory> HIGHEST_PRIORITY_FIRST = Comparator.comparingInt(VeinMinerToolCategory::getPriority).reversed();
+
+    private final int registryModifications;
+    private final long itemModifications;
+
+    private final VeinMinerToolCategory[][] byItem;
+    private final MaterialBitSet nbtItems;
+
+    private ToolCategoryIndex(int registryModifications, long itemModifications, VeinMinerToolCategory[][] byItem, MaterialBitSet nbtItems) {
+        this.registryModifications = registryModifications;
+        this.itemModifications = itemModifications;
+        this.byItem = byItem;
+        this.nbtItems = nbtItems;
+    }
+
+    boolean isUpToDate(int registryModifications) {
+        return this.registryModifications == registryModifications && itemModifications == VeinMinerToolCategory.getItemModificationCount();
+    }
+
+    /*
+     * Every category containing the given item, highest priority first. Must not be modified.
+     */
+    VeinMinerToolCategory @NotNull [] getCategories(@NotNull Material item) {
+        VeinMinerToolCategory[] categories = byItem[item.ordinal()];
+        return (categories != null) ? categories : NO_CATEGORIES;
+    }
+
+    boolean hasNBTValues(@NotNull Material item) {
+        return nbtItems.contains(item);
+    }
+
+    @NotNull
+    static ToolCategoryIndex build(int registryModifications, @NotNull Collection<? extends VeinMinerToolCategory> categories) {
+        long itemModifications = VeinMinerToolCategory.getItemModificationCount();
+
+        List<VeinMinerToolCategory> sortedCategories = new ArrayList<>(categories);
+        sortedCategories.sort(HIGHEST_PRIORITY_FIRST);
+
+        VeinMinerToolCategory[][] byItem = new VeinMinerToolCategory[MATERIALS.length][];
+        MaterialBitSet nbtItems = new MaterialBitSet();
+
+        List<VeinMinerToolCategory> itemCategories = new ArrayList<>();
+        for (Material item : MATERIALS) {
+            for (VeinMinerToolCategory category : sortedCategories) {
+                if (!category.containsItem(item)) {
+                    continue;
+                }
+
+                itemCategories.add(category);
+
+                if (category.getNBTValue() != null) {
+                    nbtItems.add(item);
+                }
+            }
+
+            if (!itemCategories.isEmpty()) {
+                byItem[item.ordinal()] = itemCategories.toArray(VeinMinerToolCategory[]::new);
+                itemCategories.clear();
+            }
+        }
+
+        return new ToolCategoryIndex(registryModifications, itemModifications, byItem, nbtItems);
+    }
+
+}
@@ -18,6 +18,7 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.permissions.Permission;
 import org.bukkit.permissions.PermissionDefault;
 import org.bukkit.plugin.PluginManager;
+import org.jetbrains.annotations.ApiStatus.Internal;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.UnmodifiableView;
@@ -34,6 +35,8 @@ import wtf.choco.veinminer.util.ItemStackUtil;
 public final class ToolCategoryRegistry {
 
     private final Map<String, VeinMinerToolCategory> categories = new HashMap<>();
+    private volatile int modifications = 0;
+    private volatile ToolCategoryIndex index;
 
     private final VeinMinerPlugin plugin;
 
@@ -53,6 +56,7 @@ public final class ToolCategoryRegistry {
      */
     public void register(@NotNull VeinMinerToolCategory category) {
         this.categories.put(category.getId().toLowerCase(), category);
+        this.modifications++;
     }
 
     /**
@@ -68,35 +72,43 @@ public final class ToolCategoryRegistry {
     }
 
     @Nullable
-    private VeinMinerToolCategory get(@NotNull Material item, @Nullable String itemNbtValue, @NotNull Predicate<VeinMinerToolCategory> categoryPredicate) {
-        VeinMinerToolCategory resultCategory = null;
-        for (VeinMinerToolCategory category : categories.values()) {
-            if (!category.containsItem(item)) {
-                continue;
-            }
+    private VeinMinerToolCategory get(@NotNull Material item, @Nullable ItemStack itemStack, @NotNull Predicate<VeinMinerToolCategory> categoryPredicate) {
+        ToolCategoryIndex index = getIndex();
 
-            String nbtValue = category.getNBTValue();
-            if (!Objects.equals(nbtValue, itemNbtValue)) {
-                continue;
-            }
+        VeinMinerToolCategory[] candidates = index.getCategories(item);
+        if (candidates.length == 0) {
+            return null;
+        }
 
-            // If the category's priority is lower than the currently returnable category, ignore it
-            if (resultCategory != null && category.compareTo(category) <= 0) {
-                continue;
-            }
+        // Reading NBT means building ItemMeta, so only do so if a candidate actually requires NBT
+        String itemNbtValue = (itemStack != null && index.hasNBTValues(item)) ? ItemStackUtil.getVeinMinerNBTValue(itemStack) : null;
 
-            if (categoryPredicate.test(category)) {
-                resultCategory = category;
+        // Candidates are sorted by priority, so the first applicable category is the one with the highest priority
+        for (VeinMinerToolCategory category : candidates) {
+            if (Objects.equals(category.getNBTValue(), itemNbtValue) && categoryPredicate.test(category)) {
+                return category;
             }
         }
 
-        return resultCategory;
+        return null;
+    }
+
+    @NotNull
+    private ToolCategoryIndex getIndex() {
+        int modifications = this.modifications;
+        ToolCategoryIndex index = this.index;
+        if (index == null || !index.isUpToDate(modifications)) {
+            index = ToolCategoryIndex.build(modifications, categories.values());
+            this.index = index;
+        }
+
+        return index;
     }
 
     /**
-     * Get the {@link VeinMinerToolCategory} that contains the given {@link Material}. There is
-     * no guarantee which category will be returned if more than one category contains the provided
-     * item type.
+     * Get the {@link VeinMinerToolCategory} that contains the given {@link Material}. If more than
+     * one category contains the provided item type, the one with the highest
+     * {@link VeinMinerToolCategory#getPriority() priority} is returned.
      *
      * @param item the item type
      *
@@ -112,9 +124,9 @@ public final class ToolCategoryRegistry {
     }
 
     /**
-     * Get the {@link VeinMinerToolCategory} that contains the given {@link Material}. There is
-     * no guarantee which category will be returned if more than one category contains the provided
-     * item type.
+     * Get the {@link VeinMinerToolCategory} that contains the given {@link Material}. If more than
+     * one category contains the provided item type, the one with the highest
+     * {@link VeinMinerToolCategory#getPriority() priority} is returned.
      *
      * @param item the item type
      * @param categoryPredicate a predicate to apply on top of the item condition. If the predicate
@@ -133,9 +145,9 @@ public final class ToolCategoryRegistry {
     }
 
     /**
-     * Get the {@link VeinMinerToolCategory} that contains the given {@link Material}. There is
-     * no guarantee which category will be returned if more than one category contains the provided
-     * item type.
+     * Get the {@link VeinMinerToolCategory} that contains the given {@link Material}. If more than
+     * one category contains the provided item type, the one with the highest
+     * {@link VeinMinerToolCategory#getPriority() priority} is returned.
      *
      * @param itemStack the item
      *
@@ -143,13 +155,13 @@ public final class ToolCategoryRegistry {
      */
     @Nullable
     public VeinMinerToolCategory get(@NotNull ItemStack itemStack) {
-        return get(itemStack.getType(), ItemStackUtil.getVeinMinerNBTValue(itemStack), Predicates.alwaysTrue());
+        return get(itemStack.getType(), itemStack, Predicates.alwaysTrue());
     }
 
     /**
-     * Get the {@link VeinMinerToolCategory} that contains the given {@link Material}. There is
-     * no guarantee which category will be returned if more than one category contains the provided
-     * item type.
+     * Get the {@link VeinMinerToolCategory} that contains the given {@link Material}. If more than
+     * one category contains the provided item type, the one with the highest
+     * {@link VeinMinerToolCategory#getPriority() priority} is returned.
      *
      * @param itemStack the item
      * @param categoryPredicate a predicate to apply on top of the item condition. If the predicate
@@ -160,7 +172,7 @@ public final class ToolCategoryRegistry {
      */
     @Nullable
     public VeinMinerToolCategory get(@NotNull ItemStack itemStack, @NotNull Predicate<VeinMinerToolCategory> categoryPredicate) {
-        return get(itemStack.getType(), ItemStackUtil.getVeinMinerNBTValue(itemStack), categoryPredicate);
+        return get(itemStack.getType(), itemStack, categoryPredicate);
     }
 
     /**
@@ -183,7 +195,12 @@ public final class ToolCategoryRegistry {
      */
     @Nullable
     public VeinMinerToolCategory unregister(@NotNull String id) {
-        return categories.remove(id.toLowerCase());
+        VeinMinerToolCategory category = categories.remove(id.toLowerCase());
+        if (category != null) {
+            this.modifications++;
+        }
+
+        return category;
     }
 
     /**
@@ -195,6 +212,20 @@ public final class ToolCategoryRegistry {
         return categories.size();
     }
 
+    /**
+     * Get the number of times a category has been registered to or unregistered from this
+     * registry, or an item has been added to or removed from any category. Values computed
+     * from the registered categories may be cached until this count changes.
+     * <p>
+     * <strong>NOTE:</strong> Not part of the public API. This method is intended for internal use only.
+     *
+     * @return the modification count
+     */
+    @Internal
+    public long getModificationCount() {
+        return modifications + VeinMinerToolCategory.getItemModificationCount();
+    }
+
     /**
      * Get all registered {@link VeinMinerToolCategory VeinMinerToolCategories}.
      *
@@ -298,6 +329,7 @@ public final class ToolCategoryRegistry {
      */
     public void unregisterAll() {
         this.categories.clear();
+        this.modifications++;
     }
 
 }
@@ -7,6 +7,7 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
@@ -18,6 +19,7 @@ import wtf.choco.veinminer.VeinMinerPlugin;
 import wtf.choco.veinminer.block.BlockList;
 import wtf.choco.veinminer.config.ToolCategoryConfiguration;
 import wtf.choco.veinminer.util.ItemStackUtil;
+import wtf.choco.veinminer.util.PermissionNodes;
 import wtf.choco.veinminer.util.VMConstants;
 
 /**
@@ -25,12 +27,15 @@ import wtf.choco.veinminer.util.VMConstants;
  */
 public sealed class VeinMinerToolCategory implements Comparable<VeinMinerToolCategory> permits VeinMinerToolCategoryHand {
 
+    private static final AtomicLong ITEM_MODIFICATIONS = new AtomicLong();
+
     private final String id;
     private final int priority;
     private final String nbtValue;
     private final BlockList blockList;
     private final ToolCategoryConfiguration config;
     private final Set<Material> items;
+    private final String permission;
 
     /**
      * Construct a new {@link VeinMinerToolCategory}.
@@ -49,6 +54,8 @@ public sealed class VeinMinerToolCategory implements Comparable<VeinMinerToolCat
         this.blockList = blockList;
         this.config = config;
         this.items = new HashSet<>(items);
+        this.permission = "veinminer.veinmine." + id.toLowerCase();
+        PermissionNodes.indexOf(permission);
     }
 
     /**
@@ -77,6 +84,16 @@ public sealed class VeinMinerToolCategory implements Comparable<VeinMinerToolCat
         return priority;
     }
 
+    /**
+     * Get the permission node required to vein mine with this category.
+     *
+     * @return the permission node
+     */
+    @NotNull
+    public String getPermission() {
+        return permission;
+    }
+
     /**
      * Get the NBT value that must be on items in this category to be vein mineable.
      * <p>
@@ -123,7 +140,7 @@ public sealed class VeinMinerToolCategory implements Comparable<VeinMinerToolCat
      * @return true if the item list was modified, false if the item was already added
      */
     public boolean addItem(@NotNull Material item) {
-        return items.add(item);
+        return itemsModifiedIf(items.add(item));
     }
 
     /**
@@ -134,7 +151,15 @@ public sealed class VeinMinerToolCategory implements Comparable<VeinMinerToolCat
      * @return true if the item list was modified, false if the item had not been added
      */
     public boolean removeItem(@NotNull Material material) {
-        return items.remove(material);
+        return itemsModifiedIf(items.remove(material));
+    }
+
+    private boolean itemsModifiedIf(boolean modified) {
+        if (modified) {
+            ITEM_MODIFICATIONS.incrementAndGet();
+        }
+
+        return modified;
     }
 
     /**
@@ -239,4 +264,12 @@ public sealed class VeinMinerToolCategory implements Comparable<VeinMinerToolCat
         return String.format("VeinMinerToolCategory[id=\"%s\", priority=%d, blockList=\"%s\", config=\"%s\", items=%s]", id, priority, blockList, config, itemJoiner.toString());
     }
 
+    /*
+     * The number of times an item has been added to or removed from any category, used by the
+     * ToolCategoryRegistry to know when its index of categories by item is out of date.
+     */
+    static long getItemModificationCount() {
+        return ITEM_MODIFICATIONS.get();
+    }
+
 }
@@ -0,0 +1,108 @@
+package wtf.choco.veinminer.util;
+
+import java.util.Arrays;
+
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A set of {@link Material Materials} backed by a bit set indexed by {@link Material#ordinal()}.
+ * Checking whether or not a Material is contained in the set costs no more than reading a single
+ * bit, making this set well suited to lookups that are performed for every block in a vein.
+ * <p>
+ * This set is not thread safe, but may safely be read from multiple threads once it is no longer
+ * being modified.
+ */
+public final class MaterialBitSet {
+
+    private static final int MATERIAL_COUNT = Material.values().length;
+
+    private final long[] words = new long[(MATERIAL_COUNT + 63) >>> 6];
+
+    /**
+     * Add a {@link Material} to this set.
+     *
+     * @param type the type to add
+     */
+    public void add(@NotNull Material type) {
+        int ordinal = type.ordinal();
+        this.words[ordinal >>> 6] |= (1L << ordinal);
+    }
+
+    /**
+     * Add all {@link Material Materials} in the given {@link Iterable} to this set.
+     *
+     * @param types the types to add
+     */
+    public void addAll(@NotNull Iterable<Material> types) {
+        for (Material type : types) {
+            this.add(type);
+        }
+    }
+
+    /**
+     * Add all {@link Material Materials} in the given set to this set.
+     *
+     * @param other the set whose types to add
+     */
+    public void addAll(@NotNull MaterialBitSet other) {
+        for (int i = 0; i < words.length; i++) {
+            this.words[i] |= other.words[i];
+        }
+    }
+
+    /**
+     * Remove a {@link Material} from this set.
+     *
+     * @param type the type to remove
+     */
+    public void remove(@NotNull Material type) {
+        int ordinal = type.ordinal();
+        this.words[ordinal >>> 6] &= ~(1L << ordinal);
+    }
+
+    /**
+     * Check whether or not this set contains the given {@link Material}.
+     *
+     * @param type the type to check
+     *
+     * @return true if contained, false otherwise
+     */
+    public boolean contains(@NotNull Material type) {
+        int ordinal = type.ordinal();
+        return (words[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    /**
+     * Check whether or not this set is empty.
+     *
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Remove all {@link Material Materials} from this set.
+     */
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this || (obj instanceof MaterialBitSet other && Arrays.equals(words, other.words));
+    }
+
+}
@@ -0,0 +1,42 @@
+package wtf.choco.veinminer.util;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.ApiStatus.Internal;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An intern pool of dynamic permission nodes (those of tool categories and patterns), assigning
+ * each node a small, stable index so that whether or not a player has been granted the node can
+ * be cached in a bit set.
+ * <p>
+ * <strong>NOTE:</strong> Not part of the public API. This class is intended for internal use only.
+ */
+@Internal
+public final class PermissionNodes {
+
+    private static final Map<String, Integer> INDICES = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_INDEX = new AtomicInteger();
+
+    private PermissionNodes() { }
+
+    /**
+     * Get the index of the given permission node, assigning it the next available index if it
+     * has not yet been interned. Indices are never reused.
+     *
+     * @param node the permission node
+     *
+     * @return the index of the node
+     */
+    public static int indexOf(@NotNull String node) {
+        Preconditions.checkArgument(node != null, "node must not be null");
+
+        Integer index = INDICES.get(node);
+        return (index != null) ? index : INDICES.computeIfAbsent(node, ignore -> NEXT_INDEX.getAndIncrement());
+    }
+
+}
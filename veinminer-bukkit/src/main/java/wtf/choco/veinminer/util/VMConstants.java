@@ -30,14 +30,19 @@ public final class VMConstants {
     public static final String PERMISSION_COMMAND_MODE = "veinminer.command.mode";
     public static final String PERMISSION_COMMAND_PATTERN = "veinminer.command.pattern";
     public static final String PERMISSION_COMMAND_IMPORT = "veinminer.command.import";
+    public static final String PERMISSION_COMMAND_STATS = "veinminer.command.stats";
 
     // Dynamic permission nodes
-    public static final Function<VeinMinerToolCategory, String> PERMISSION_VEINMINE = category -> "veinminer.veinmine." + category.getId().toLowerCase();
+    public static final Function<VeinMinerToolCategory, String> PERMISSION_VEINMINE = VeinMinerToolCategory::getPermission;
 
 
     // Metadata keys
+    // Blocks are no longer given these while being vein mined, see VeinMinerPlugin#getActiveVeinRegistry()
+    @Deprecated
     public static final String METADATA_KEY_TO_BE_VEINMINED = "veinminer:to_be_veinmined";
+    @Deprecated
     public static final String METADATA_KEY_VEINMINER_SOURCE = "veinminer:source";
+    @Deprecated
     public static final String METADATA_KEY_VEINMINER_EXPERIENCE = "veinminer:experience";
 
     public static final String METADATA_KEY_VEINMINING = "veinminer:vein_mining";
@@ -4,12 +4,14 @@ import java.util.List;
 
 import org.bukkit.Bukkit;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import wtf.choco.veinminer.api.event.player.PlayerClientActivateVeinMinerEvent;
+import wtf.choco.veinminer.api.event.player.PlayerVeinMineCompleteEvent;
 import wtf.choco.veinminer.api.event.player.PlayerVeinMineEvent;
 import wtf.choco.veinminer.api.event.player.PlayerVeinMiningPatternChangeEvent;
 import wtf.choco.veinminer.block.VeinMinerBlock;
@@ -43,6 +45,25 @@ public final class VMEventFactory {
         return event;
     }
 
+    /**
+     * Call the {@link PlayerVeinMineCompleteEvent}.
+     *
+     * @param player the player
+     * @param block the block that was broken by the player
+     * @param category the tool category
+     * @param brokenBlocks the states of the blocks that were removed
+     * @param drops the items dropped by the removed blocks
+     * @param experience the experience dropped by the removed blocks
+     *
+     * @return the event
+     */
+    @NotNull
+    public static PlayerVeinMineCompleteEvent callPlayerVeinMineCompleteEvent(@NotNull Player player, @NotNull Block block, @NotNull VeinMinerToolCategory category, @NotNull List<BlockState> brokenBlocks, @NotNull List<ItemStack> drops, int experience) {
+        PlayerVeinMineCompleteEvent event = new PlayerVeinMineCompleteEvent(player, block, category, brokenBlocks, drops, experience);
+        Bukkit.getPluginManager().callEvent(event);
+        return event;
+    }
+
     /**
      * Call the {@link PlayerClientActivateVeinMinerEvent}.
      *
@@ -0,0 +1,157 @@
+package wtf.choco.veinminer.block;
+
+import java.lang.reflect.Proxy;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Tag;
+import org.bukkit.block.data.BlockData;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockListTest {
+
+    @Test
+    void testMostSpecificEntryWins() {
+        BlockData stoneState = blockData(Material.STONE);
+        VeinMinerBlock state = VeinMinerBlock.state(stoneState);
+        VeinMinerBlock type = VeinMinerBlock.type(Material.STONE);
+        VeinMinerBlock tag = VeinMinerBlock.tag(new TestTag("stones", Material.STONE, Material.GRANITE));
+        VeinMinerBlock wildcard = VeinMinerBlock.wildcard();
+
+        BlockList list = new BlockList();
+        list.add(wildcard);
+        list.add(tag);
+        list.add(type);
+        list.add(state);
+
+        // States before types, types before tags, tags before the wildcard
+        assertSame(state, list.getVeinMinerBlock(stoneState));
+        assertSame(type, list.getVeinMinerBlock(blockData(Material.STONE)));
+        assertSame(tag, list.getVeinMinerBlock(blockData(Material.GRANITE)));
+        assertSame(wildcard, list.getVeinMinerBlock(blockData(Material.DIRT)));
+
+        // Each entry falls through to the next most specific one once removed
+        list.remove(state);
+        assertSame(type, list.getVeinMinerBlock(stoneState));
+        list.remove(type);
+        assertSame(tag, list.getVeinMinerBlock(stoneState));
+        list.remove(tag);
+        assertSame(wildcard, list.getVeinMinerBlock(stoneState));
+    }
+
+    @Test
+    void testTypeTakesPrecedenceOverTag() {
+        VeinMinerBlock type = VeinMinerBlock.type(Material.STONE);
+        VeinMinerBlock tag = VeinMinerBlock.tag(new TestTag("stones", Material.STONE, Material.GRANITE));
+
+        // Tags are expanded into the same buckets as types, so the order in which entries are indexed must not matter
+        for (BlockListIndex index : new BlockListIndex[] {BlockListIndex.build(List.of(type, tag)), BlockListIndex.build(List.of(tag, type))}) {
+            assertSame(type, index.getVeinMinerBlock(blockData(Material.STONE), false));
+            assertSame(tag, index.getVeinMinerBlock(blockData(Material.GRANITE), false));
+            assertTrue(index.containsType(Material.GRANITE));
+            assertFalse(index.containsType(Material.DIRT));
+        }
+
+        BlockList list = new BlockList();
+        list.add(tag);
+        list.add(type);
+        assertSame(type, list.getVeinMinerBlock(blockData(Material.STONE)));
+    }
+
+    @Test
+    void testIndexInvalidatedOnModification() {
+        BlockData stone = blockData(Material.STONE), dirt = blockData(Material.DIRT);
+        VeinMinerBlock stoneType = VeinMinerBlock.type(Material.STONE);
+        VeinMinerBlock dirtType = VeinMinerBlock.type(Material.DIRT);
+
+        // Every lookup in between builds an index that the following modification must invalidate
+        BlockList list = new BlockList();
+        assertNull(list.getVeinMinerBlock(stone));
+
+        list.add(stoneType);
+        assertSame(stoneType, list.getVeinMinerBlock(stone));
+
+        list.addAll(Set.of(dirtType));
+        assertSame(dirtType, list.getVeinMinerBlock(dirt));
+
+        list.remove(stoneType);
+        assertNull(list.getVeinMinerBlock(stone));
+        assertFalse(list.containsType(Material.STONE));
+
+        list.removeAll(Material.DIRT);
+        assertNull(list.getVeinMinerBlock(dirt));
+        assertFalse(list.containsType(Material.DIRT));
+
+        list.add(VeinMinerBlock.wildcard());
+        assertTrue(list.containsWildcard());
+
+        list.clear();
+        assertFalse(list.containsWildcard());
+        assertNull(list.getVeinMinerBlock(dirt));
+    }
+
+    @Test
+    void testIndexInvalidatedOnTagRefresh() {
+        TestTag tag = new TestTag("refreshed", Material.STONE);
+        VeinMinerBlock tagBlock = VeinMinerBlock.tag(tag);
+
+        BlockList list = new BlockList();
+        list.add(tagBlock);
+        assertFalse(list.containsType(Material.GRANITE));
+
+        tag.values.add(Material.GRANITE);
+        VeinMinerBlock.refreshTags();
+
+        assertTrue(list.containsType(Material.GRANITE));
+        assertSame(tagBlock, list.getVeinMinerBlock(blockData(Material.GRANITE)));
+    }
+
+    // BlockData can't be created without a server. Stubs only match themselves, just as two distinct states would
+    private static BlockData blockData(Material type) {
+        return (BlockData) Proxy.newProxyInstance(BlockListTest.class.getClassLoader(), new Class<?>[] {BlockData.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "getMaterial" -> type;
+            case "getAsString" -> type.getKey().toString();
+            case "matches", "equals" -> proxy == args[0];
+            case "clone" -> proxy;
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "BlockData{" + type.getKey() + "}";
+            default -> throw new UnsupportedOperationException(method.getName() + " is not stubbed");
+        });
+    }
+
+    private static final class TestTag implements Tag<Material> {
+
+        private final NamespacedKey key;
+        private final Set<Material> values;
+
+        private TestTag(String key, Material first, Material... rest) {
+            this.key = new NamespacedKey("test", key);
+            this.values = EnumSet.of(first, rest);
+        }
+
+        @Override
+        public boolean isTagged(Material item) {
+            return values.contains(item);
+        }
+
+        @Override
+        public Set<Material> getValues() {
+            return values;
+        }
+
+        @Override
+        public NamespacedKey getKey() {
+            return key;
+        }
+
+    }
+
+}
@@ -0,0 +1,257 @@
+package wtf.choco.veinminer.util;
+
+import java.util.Arrays;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An open-addressed hash set of primitive longs. Values are stored unboxed in a single
+ * array and collisions are resolved by linear probing, which makes this set considerably
+ * cheaper than a {@code HashSet<Long>} for hot paths that hash many values, such as
+ * positions packed with {@link BlockPosition#pack(int, int, int)}.
+ * <p>
+ * This set is not thread safe.
+ */
+public final class LongHashSet {
+
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+    private static final float LOAD_FACTOR = 0.5F;
+
+    // 0 is used to mark an empty slot in the key array, so its membership is tracked separately
+    private boolean containsZero;
+
+    private long[] keys;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    /**
+     * Construct a new {@link LongHashSet} sized to hold the given amount of values without
+     * having to grow.
+     *
+     * @param expectedSize the expected amount of values
+     */
+    public LongHashSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must be >= 0");
+        }
+
+        this.allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Construct a new {@link LongHashSet} with a default initial capacity.
+     */
+    public LongHashSet() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Add a value to this set.
+     *
+     * @param value the value to add
+     *
+     * @return true if the value was added, false if it was already present
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+
+            this.containsZero = true;
+            this.size++;
+            return true;
+        }
+
+        int index = hash(value) & mask;
+        long current;
+        while ((current = keys[index]) != 0) {
+            if (current == value) {
+                return false;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        this.keys[index] = value;
+        if (++size > resizeThreshold) {
+            this.rehash(keys.length << 1);
+        }
+
+        return true;
+    }
+
+    /**
+     * Check whether or not this set contains the given value.
+     *
+     * @param value the value to check
+     *
+     * @return true if present, false otherwise
+     */
+    public boolean contains(long value) {
+        if (value == 0) {
+            return containsZero;
+        }
+
+        int index = hash(value) & mask;
+        long current;
+        while ((current = keys[index]) != 0) {
+            if (current == value) {
+                return true;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        return false;
+    }
+
+    /**
+     * Remove a value from this set.
+     *
+     * @param value the value to remove
+     *
+     * @return true if the value was removed, false if it was not present
+     */
+    public boolean remove(long value) {
+        if (value == 0) {
+            if (!containsZero) {
+                return false;
+            }
+
+            this.containsZero = false;
+            this.size--;
+            return true;
+        }
+
+        int index = hash(value) & mask;
+        long current;
+        while ((current = keys[index]) != 0) {
+            if (current == value) {
+                this.shiftKeys(index);
+                this.size--;
+                return true;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        return false;
+    }
+
+    /**
+     * Get the amount of values in this set.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether or not this set is empty.
+     *
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all values from this set. The capacity of the set is retained so that it may be
+     * reused without having to grow again.
+     */
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+
+        Arrays.fill(keys, 0);
+        this.containsZero = false;
+        this.size = 0;
+    }
+
+    /**
+     * Get all values in this set as a new array. The order of the values is undefined.
+     *
+     * @return the values
+     */
+    @NotNull
+    public long[] toArray() {
+        long[] result = new long[size];
+        int index = 0;
+
+        if (containsZero) {
+            result[index++] = 0;
+        }
+
+        for (long key : keys) {
+            if (key != 0) {
+                result[index++] = key;
+            }
+        }
+
+        return result;
+    }
+
+    // Backward shift deletion. Moves entries displaced by the removed key back towards their ideal slot
+    private void shiftKeys(int index) {
+        int last;
+        while (true) {
+            index = ((last = index) + 1) & mask;
+
+            long current;
+            while (true) {
+                if ((current = keys[index]) == 0) {
+                    this.keys[last] = 0;
+                    return;
+                }
+
+                int slot = hash(current) & mask;
+                if (last <= index ? (last >= slot || slot > index) : (last >= slot && slot > index)) {
+                    break;
+                }
+
+                index = (index + 1) & mask;
+            }
+
+            this.keys[last] = current;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        this.allocate(newCapacity);
+
+        for (long key : oldKeys) {
+            if (key == 0) {
+                continue;
+            }
+
+            int index = hash(key) & mask;
+            while (keys[index] != 0) {
+                index = (index + 1) & mask;
+            }
+
+            this.keys[index] = key;
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.mask = capacity - 1;
+        this.resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max((int) Math.ceil(expectedSize / LOAD_FACTOR), 2) - 1) << 1;
+        return Math.max(capacity, 4);
+    }
+
+    private static int hash(long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+}
@@ -0,0 +1,267 @@
+package wtf.choco.veinminer.util;
+
+import java.util.Arrays;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An open-addressed hash map with primitive long keys. Keys are stored unboxed and collisions are
+ * resolved by linear probing, making this map a cheaper alternative to a {@code Map<Long, V>} for
+ * positions packed with {@link BlockPosition#pack(int, int, int)}.
+ * <p>
+ * This map does not permit null values and is not thread safe.
+ *
+ * @param <V> the type of value
+ */
+public final class LongObjectHashMap<V> {
+
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+    private static final float LOAD_FACTOR = 0.5F;
+
+    // 0 is used to mark an empty slot in the key array, so its value is stored separately
+    private V zeroValue;
+
+    private long[] keys;
+    private V[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    /**
+     * Construct a new {@link LongObjectHashMap} sized to hold the given amount of mappings without
+     * having to grow.
+     *
+     * @param expectedSize the expected amount of mappings
+     */
+    public LongObjectHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must be >= 0");
+        }
+
+        this.allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Construct a new {@link LongObjectHashMap} with a default initial capacity.
+     */
+    public LongObjectHashMap() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Get the value mapped to the given key.
+     *
+     * @param key the key
+     *
+     * @return the mapped value, or null if none
+     */
+    @Nullable
+    public V get(long key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+
+        int index = hash(key) & mask;
+        long current;
+        while ((current = keys[index]) != 0) {
+            if (current == key) {
+                return values[index];
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        return null;
+    }
+
+    /**
+     * Check whether or not a value is mapped to the given key.
+     *
+     * @param key the key
+     *
+     * @return true if a value is present, false otherwise
+     */
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Map a value to the given key, replacing any existing value.
+     *
+     * @param key the key
+     * @param value the value to map
+     *
+     * @return the previously mapped value, or null if none
+     */
+    @Nullable
+    public V put(long key, @NotNull V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value must not be null");
+        }
+
+        if (key == 0) {
+            V previous = zeroValue;
+            this.zeroValue = value;
+            if (previous == null) {
+                this.size++;
+            }
+
+            return previous;
+        }
+
+        int index = hash(key) & mask;
+        long current;
+        while ((current = keys[index]) != 0) {
+            if (current == key) {
+                V previous = values[index];
+                this.values[index] = value;
+                return previous;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        this.keys[index] = key;
+        this.values[index] = value;
+        if (++size > resizeThreshold) {
+            this.rehash(keys.length << 1);
+        }
+
+        return null;
+    }
+
+    /**
+     * Remove the value mapped to the given key.
+     *
+     * @param key the key
+     *
+     * @return the removed value, or null if none was mapped
+     */
+    @Nullable
+    public V remove(long key) {
+        if (key == 0) {
+            V previous = zeroValue;
+            if (previous != null) {
+                this.zeroValue = null;
+                this.size--;
+            }
+
+            return previous;
+        }
+
+        int index = hash(key) & mask;
+        long current;
+        while ((current = keys[index]) != 0) {
+            if (current == key) {
+                V previous = values[index];
+                this.shiftKeys(index);
+                this.size--;
+                return previous;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        return null;
+    }
+
+    /**
+     * Get the amount of mappings in this map.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether or not this map is empty.
+     *
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all mappings from this map. The capacity of the map is retained.
+     */
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        this.zeroValue = null;
+        this.size = 0;
+    }
+
+    // Backward shift deletion. Moves entries displaced by the removed key back towards their ideal slot
+    private void shiftKeys(int index) {
+        int last;
+        while (true) {
+            index = ((last = index) + 1) & mask;
+
+            long current;
+            while (true) {
+                if ((current = keys[index]) == 0) {
+                    this.keys[last] = 0;
+                    this.values[last] = null;
+                    return;
+                }
+
+                int slot = hash(current) & mask;
+                if (last <= index ? (last >= slot || slot > index) : (last >= slot && slot > index)) {
+                    break;
+                }
+
+                index = (index + 1) & mask;
+            }
+
+            this.keys[last] = current;
+            this.values[last] = values[index];
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        V[] oldValues = values;
+        this.allocate(newCapacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == 0) {
+                continue;
+            }
+
+            int index = hash(key) & mask;
+            while (keys[index] != 0) {
+                index = (index + 1) & mask;
+            }
+
+            this.keys[index] = key;
+            this.values[index] = oldValues[i];
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = (V[]) new Object[capacity];
+        this.mask = capacity - 1;
+        this.resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max((int) Math.ceil(expectedSize / LOAD_FACTOR), 2) - 1) << 1;
+        return Math.max(capacity, 4);
+    }
+
+    private static int hash(long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+}
@@ -0,0 +1,161 @@
+package wtf.choco.veinminer.util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A priority queue of primitive long values, each enqueued with a long priority. Values are
+ * dequeued in ascending order of priority. The order in which values of equal priority are
+ * dequeued is unspecified.
+ * <p>
+ * This queue is backed by a growable binary min-heap and is not thread safe.
+ */
+public final class LongPriorityQueue {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Parallel arrays, heap ordered by priority
+    private long[] priorities;
+    private long[] values;
+    private int size;
+
+    /**
+     * Construct a new {@link LongPriorityQueue} able to hold at least the given amount of values
+     * without having to grow.
+     *
+     * @param initialCapacity the initial capacity
+     */
+    public LongPriorityQueue(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must be >= 0");
+        }
+
+        int capacity = Math.max(initialCapacity, 2);
+        this.priorities = new long[capacity];
+        this.values = new long[capacity];
+    }
+
+    /**
+     * Construct a new {@link LongPriorityQueue} with a default initial capacity.
+     */
+    public LongPriorityQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Add a value to this queue.
+     *
+     * @param value the value to add
+     * @param priority the priority of the value. Lower priorities are dequeued first
+     */
+    public void enqueue(long value, long priority) {
+        if (size == values.length) {
+            int capacity = values.length << 1;
+            this.priorities = Arrays.copyOf(priorities, capacity);
+            this.values = Arrays.copyOf(values, capacity);
+        }
+
+        // Sift up
+        int index = size++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (priorities[parent] <= priority) {
+                break;
+            }
+
+            this.priorities[index] = priorities[parent];
+            this.values[index] = values[parent];
+            index = parent;
+        }
+
+        this.priorities[index] = priority;
+        this.values[index] = value;
+    }
+
+    /**
+     * Remove and return the value with the lowest priority in this queue.
+     *
+     * @return the removed value
+     *
+     * @throws NoSuchElementException if this queue is empty
+     */
+    public long dequeue() {
+        if (size == 0) {
+            throw new NoSuchElementException("queue is empty");
+        }
+
+        long result = values[0];
+        int last = --size;
+        if (last == 0) {
+            return result;
+        }
+
+        long priority = priorities[last];
+        long value = values[last];
+
+        // Sift the last element down from the root
+        int index = 0;
+        int half = last >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < last && priorities[right] < priorities[child]) {
+                child = right;
+            }
+
+            if (priority <= priorities[child]) {
+                break;
+            }
+
+            this.priorities[index] = priorities[child];
+            this.values[index] = values[child];
+            index = child;
+        }
+
+        this.priorities[index] = priority;
+        this.values[index] = value;
+        return result;
+    }
+
+    /**
+     * Get the value with the lowest priority in this queue without removing it.
+     *
+     * @return the value with the lowest priority
+     *
+     * @throws NoSuchElementException if this queue is empty
+     */
+    public long peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("queue is empty");
+        }
+
+        return values[0];
+    }
+
+    /**
+     * Get the amount of values in this queue.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether or not this queue is empty.
+     *
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all values from this queue. The capacity of the queue is retained so that it may
+     * be reused without having to grow again.
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+}
@@ -0,0 +1,128 @@
+package wtf.choco.veinminer.util;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A first-in-first-out queue of primitive longs backed by a growable circular array.
+ * <p>
+ * This queue is not thread safe.
+ */
+public final class LongRingBuffer {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] elements;
+    private int head, tail;
+    private int size;
+
+    /**
+     * Construct a new {@link LongRingBuffer} able to hold at least the given amount of values
+     * without having to grow.
+     *
+     * @param initialCapacity the initial capacity
+     */
+    public LongRingBuffer(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must be >= 0");
+        }
+
+        this.elements = new long[Math.max(Integer.highestOneBit(Math.max(initialCapacity, 2) - 1) << 1, 2)];
+    }
+
+    /**
+     * Construct a new {@link LongRingBuffer} with a default initial capacity.
+     */
+    public LongRingBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Add a value to the end of this queue.
+     *
+     * @param value the value to add
+     */
+    public void enqueue(long value) {
+        if (size == elements.length) {
+            this.grow();
+        }
+
+        this.elements[tail] = value;
+        this.tail = (tail + 1) & (elements.length - 1);
+        this.size++;
+    }
+
+    /**
+     * Remove and return the value at the front of this queue.
+     *
+     * @return the removed value
+     *
+     * @throws NoSuchElementException if this queue is empty
+     */
+    public long dequeue() {
+        if (size == 0) {
+            throw new NoSuchElementException("queue is empty");
+        }
+
+        long value = elements[head];
+        this.head = (head + 1) & (elements.length - 1);
+        this.size--;
+        return value;
+    }
+
+    /**
+     * Get the value at the front of this queue without removing it.
+     *
+     * @return the value at the front of the queue
+     *
+     * @throws NoSuchElementException if this queue is empty
+     */
+    public long peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("queue is empty");
+        }
+
+        return elements[head];
+    }
+
+    /**
+     * Get the amount of values in this queue.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether or not this queue is empty.
+     *
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all values from this queue. The capacity of the queue is retained so that it may
+     * be reused without having to grow again.
+     */
+    public void clear() {
+        this.head = 0;
+        this.tail = 0;
+        this.size = 0;
+    }
+
+    private void grow() {
+        long[] grown = new long[elements.length << 1];
+
+        // Unroll the ring so that the head sits at index 0 of the new array
+        int headLength = elements.length - head;
+        System.arraycopy(elements, head, grown, 0, headLength);
+        System.arraycopy(elements, 0, grown, headLength, head);
+
+        this.elements = grown;
+        this.head = 0;
+        this.tail = size;
+    }
+
+}
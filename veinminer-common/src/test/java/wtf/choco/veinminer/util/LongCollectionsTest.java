@@ -0,0 +1,138 @@
+package wtf.choco.veinminer.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongCollectionsTest {
+
+    @Test
+    void testHashSetAddContains() {
+        LongHashSet set = new LongHashSet(0);
+
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.add(BlockPosition.pack(-5, 64, 12)));
+        assertFalse(set.add(BlockPosition.pack(-5, 64, 12)));
+
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(BlockPosition.pack(-5, 64, 12)));
+        assertFalse(set.contains(BlockPosition.pack(-5, 65, 12)));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    void testHashSetMatchesJavaSet() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+
+        // Small coordinate range so that adds and removes frequently collide
+        for (int i = 0; i < 20000; i++) {
+            long value = BlockPosition.pack(random.nextInt(-16, 16), random.nextInt(-16, 16), random.nextInt(-16, 16));
+
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value));
+            } else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        expected.forEach(value -> assertTrue(set.contains(value)));
+
+        for (long value : set.toArray()) {
+            assertTrue(expected.contains(value));
+        }
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        expected.forEach(value -> assertFalse(set.contains(value)));
+    }
+
+    @Test
+    void testHashMapMatchesJavaMap() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LongObjectHashMap<Integer> map = new LongObjectHashMap<>();
+        Map<Long, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 20000; i++) {
+            long key = BlockPosition.pack(random.nextInt(-16, 16), random.nextInt(-16, 16), random.nextInt(-16, 16));
+
+            if (random.nextBoolean()) {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            } else {
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(0));
+    }
+
+    @Test
+    void testPriorityQueueOrder() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LongPriorityQueue queue = new LongPriorityQueue(0);
+        PriorityQueue<Long> expected = new PriorityQueue<>();
+
+        for (int i = 0; i < 20000; i++) {
+            if (expected.isEmpty() || random.nextInt(3) != 0) {
+                long priority = random.nextLong(-1000, 1000);
+                queue.enqueue(priority * 2, priority); // Derive the value from its priority so the dequeued value can be verified
+                expected.add(priority);
+            } else {
+                assertEquals(expected.poll() * 2, queue.dequeue());
+            }
+        }
+
+        assertEquals(expected.size(), queue.size());
+        while (!expected.isEmpty()) {
+            assertEquals(expected.peek() * 2, queue.peek());
+            assertEquals(expected.poll() * 2, queue.dequeue());
+        }
+
+        assertTrue(queue.isEmpty());
+        assertThrows(NoSuchElementException.class, queue::dequeue);
+    }
+
+    @Test
+    void testRingBufferOrder() {
+        LongRingBuffer queue = new LongRingBuffer(2);
+
+        // Offset the head so that growing has to unroll a wrapped ring
+        queue.enqueue(-1);
+        queue.dequeue();
+
+        for (long i = 0; i < 100; i++) {
+            queue.enqueue(i);
+        }
+
+        assertEquals(100, queue.size());
+        assertEquals(0, queue.peek());
+
+        for (long i = 0; i < 100; i++) {
+            assertEquals(i, queue.dequeue());
+        }
+
+        assertTrue(queue.isEmpty());
+        assertThrows(NoSuchElementException.class, queue::dequeue);
+    }
+
+}